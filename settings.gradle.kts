@@ -1,6 +1,7 @@
 rootProject.name = "Vitrum"
 
 include("vitrum")
+include("vitrum-agent")
 
 pluginManagement {
     includeBuild("build-logic")
@@ -20,6 +21,10 @@ dependencyResolutionManagement {
 
             val asm: String by settings
             library("asm", "org.ow2.asm:asm:$asm")
+            library("asm-tree", "org.ow2.asm:asm-tree:$asm")
+
+            val jmhPlugin: String by settings
+            plugin("jmh", "me.champeau.jmh").version(jmhPlugin)
         }
 
     }
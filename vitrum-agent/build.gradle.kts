@@ -0,0 +1,20 @@
+plugins {
+    id("java-library-convention")
+}
+
+dependencies {
+    implementation(project(":vitrum"))
+    implementation(libs.asm)
+    implementation(libs.asm.tree)
+}
+
+tasks {
+    jar {
+        manifest {
+            attributes(
+                "Premain-Class" to "me.pesekjak.vitrum.VitrumAgent",
+                "Agent-Class" to "me.pesekjak.vitrum.VitrumAgent"
+            )
+        }
+    }
+}
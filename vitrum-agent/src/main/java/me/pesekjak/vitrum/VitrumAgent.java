@@ -0,0 +1,74 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.instrument.Instrumentation;
+import java.nio.file.Path;
+
+/**
+ * Java agent that rewrites window calls into direct calls of their targets.
+ * <p>
+ * The agent expects the handler used by the process as its argument, optionally
+ * followed by a path to the mappings of the handler, for example
+ * {@code -javaagent:vitrum-agent.jar=1.20.4,mappings=server.txt}.
+ * <p>
+ * Window interfaces are expected to be implemented only by windows of this handler,
+ * calls of their methods then behave the same, but do not create the argument array
+ * and do not box primitives. Vitrum and ASM need to be present on the class path.
+ *
+ * @since 1.3.0
+ */
+public final class VitrumAgent {
+
+    private VitrumAgent() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Entry point of the agent when started with the JVM.
+     *
+     * @param arguments agent arguments
+     * @param instrumentation instrumentation
+     * @throws IOException if the mappings can not be loaded
+     * @since 1.3.0
+     */
+    public static void premain(@Nullable String arguments, Instrumentation instrumentation) throws IOException {
+        instrumentation.addTransformer(transformer(arguments));
+    }
+
+    /**
+     * Entry point of the agent when attached to a running JVM.
+     * <p>
+     * Only classes loaded after the agent is attached are transformed.
+     *
+     * @param arguments agent arguments
+     * @param instrumentation instrumentation
+     * @throws IOException if the mappings can not be loaded
+     * @since 1.3.0
+     */
+    public static void agentmain(@Nullable String arguments, Instrumentation instrumentation) throws IOException {
+        premain(arguments, instrumentation);
+    }
+
+    /**
+     * Creates transformer from the agent arguments.
+     *
+     * @param arguments agent arguments
+     * @return transformer
+     * @throws IOException if the mappings can not be loaded
+     */
+    static WindowCallTransformer transformer(@Nullable String arguments) throws IOException {
+        if (arguments == null || arguments.isBlank())
+            throw new IllegalArgumentException("Handler of the Vitrum agent is not specified");
+        String[] parts = arguments.split(",");
+        Mappings mappings = null;
+        for (int i = 1; i < parts.length; i++) {
+            if (!parts[i].startsWith("mappings="))
+                throw new IllegalArgumentException("Unknown Vitrum agent argument " + parts[i]);
+            mappings = Mappings.load(Path.of(parts[i].substring("mappings=".length())));
+        }
+        return new WindowCallTransformer(parts[0], mappings);
+    }
+
+}
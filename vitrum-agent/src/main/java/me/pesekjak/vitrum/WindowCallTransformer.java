@@ -0,0 +1,427 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Rewrites calls of window methods into direct calls of their targets.
+ * <p>
+ * Only call sites following the pattern javac emits for varargs calls are rewritten,
+ * where each element of the argument array is a single load instruction, optionally
+ * boxed. The array is removed and the call is replaced by a call of a private static
+ * bridge method added to the calling class, which contains the same instructions as
+ * the window method would, except that primitives are passed without boxing.
+ * <p>
+ * Call sites are left as they are if the target is not public, is reflective, cached,
+ * has affinity, or if the conversions of its arguments or return value would differ
+ * from the window implementation.
+ */
+final class WindowCallTransformer implements ClassFileTransformer {
+
+    private static final String WINDOW_ARGUMENTS = "(Ljava/lang/Object;[Ljava/lang/Object;)";
+    private static final byte[] MARKER = WINDOW_ARGUMENTS.getBytes(StandardCharsets.UTF_8);
+    private static final String[] EXCLUDED = {"java/", "javax/", "jdk/", "sun/", "com/sun/", "org/objectweb/asm/"};
+
+    private final String handler;
+    private final @Nullable Mappings mappings;
+    private final Map<ClassLoader, WindowIndex> indices = Collections.synchronizedMap(new WeakHashMap<>());
+
+    WindowCallTransformer(String handler, @Nullable Mappings mappings) {
+        this.handler = handler;
+        this.mappings = mappings;
+    }
+
+    @Override
+    public byte @Nullable [] transform(ClassLoader loader,
+                                       String className,
+                                       Class<?> classBeingRedefined,
+                                       ProtectionDomain protectionDomain,
+                                       byte[] classfileBuffer) {
+        if (loader == null || className == null || classBeingRedefined != null) return null;
+        for (String excluded : EXCLUDED) {
+            if (className.startsWith(excluded)) return null;
+        }
+        if (!contains(classfileBuffer, MARKER)) return null;
+        try {
+            return transform(loader, classfileBuffer);
+        } catch (Throwable throwable) {
+            // the class is loaded as it is
+            return null;
+        }
+    }
+
+    /**
+     * Rewrites window calls of a class.
+     *
+     * @param loader class loader of the class
+     * @param bytes class file
+     * @return transformed class file, or null if there are no calls to rewrite
+     */
+    byte @Nullable [] transform(ClassLoader loader, byte[] bytes) {
+        ClassNode node = new ClassNode();
+        new ClassReader(bytes).accept(node, 0);
+        if ((node.access & ACC_INTERFACE) != 0) return null;
+
+        WindowIndex index = indices.computeIfAbsent(loader, key -> new WindowIndex(handler, mappings));
+        Map<String, MethodNode> bridges = new LinkedHashMap<>();
+        for (MethodNode method : node.methods) {
+            if (method.instructions.size() == 0) continue;
+            Set<LabelNode> jumpTargets = jumpTargets(method);
+            for (AbstractInsnNode instruction : method.instructions.toArray()) {
+                if (!(instruction instanceof MethodInsnNode call)
+                        || call.getOpcode() != INVOKEINTERFACE
+                        || !call.desc.startsWith(WINDOW_ARGUMENTS)) continue;
+                CallSite site = CallSite.match(call, jumpTargets);
+                if (site == null) continue;
+                TargetSpec target = index.getTarget(loader, call.owner, call.name, call.desc);
+                if (target == null) continue;
+                Type[] arguments = site.bridgeArguments(target);
+                if (arguments == null || !isConvertible(Vitrum.getOutputType(target), Type.getReturnType(call.desc))) continue;
+
+                String key = call.owner + '.' + call.name + call.desc + Arrays.toString(arguments);
+                MethodNode bridge = bridges.get(key);
+                if (bridge == null) bridges.put(key, bridge = writeBridge(call, target, arguments, bridges.size()));
+                site.rewrite(method.instructions, new MethodInsnNode(INVOKESTATIC, node.name, bridge.name, bridge.desc, false));
+            }
+        }
+        if (bridges.isEmpty()) return null;
+        node.methods.addAll(bridges.values());
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        node.accept(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes bridge method calling the target directly.
+     * <p>
+     * Parameters of the bridge are the window, the instance and the elements
+     * of the removed argument array.
+     *
+     * @param call window method call
+     * @param target target of the window method
+     * @param arguments types of the argument array elements
+     * @param id unique number of the bridge in the class
+     * @return bridge method
+     */
+    private static MethodNode writeBridge(MethodInsnNode call, TargetSpec target, Type[] arguments, int id) {
+        Type[] parameters = new Type[arguments.length + 2];
+        parameters[0] = Type.getObjectType(call.owner);
+        parameters[1] = Type.getType(Object.class);
+        System.arraycopy(arguments, 0, parameters, 2, arguments.length);
+        Type returnType = Type.getReturnType(call.desc);
+
+        MethodNode bridge = new MethodNode(
+                ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC,
+                "vitrum$" + call.name + "$" + id,
+                Type.getMethodDescriptor(returnType, parameters),
+                null,
+                null
+        );
+        bridge.visitCode();
+        // keeps the null check of the window call
+        bridge.visitVarInsn(ALOAD, 0);
+        bridge.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "requireNonNull", "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+        bridge.visitInsn(POP);
+        Vitrum.writeNonReflectiveCode(target, bridge, new BridgeArguments(arguments));
+        convertOutput(bridge, Vitrum.getOutputType(target), returnType);
+        bridge.visitInsn(returnType.getOpcode(IRETURN));
+        bridge.visitMaxs(0, 0);
+        bridge.visitEnd();
+        return bridge;
+    }
+
+    /**
+     * Checks whether the output of a target can be converted to the return type of the window
+     * method the same way the window implementation does, without the Vitrum internal converters.
+     *
+     * @param output output type of the target
+     * @param returnType return type of the window method
+     * @return whether the output can be converted
+     */
+    private static boolean isConvertible(Type output, Type returnType) {
+        if (returnType.equals(Type.VOID_TYPE) || output.equals(returnType)) return true;
+        if (output.equals(Type.VOID_TYPE)) return isReference(returnType);
+        if (isReference(returnType)) return true;
+        return !isReference(output) && isNumeric(output) && isNumeric(returnType);
+    }
+
+    /**
+     * Converts the output of a target to the return type of the window method.
+     *
+     * @param visitor visitor
+     * @param output output type of the target
+     * @param returnType return type of the window method
+     */
+    private static void convertOutput(MethodVisitor visitor, Type output, Type returnType) {
+        if (returnType.equals(Type.VOID_TYPE)) {
+            if (output.getSize() != 0) visitor.visitInsn(output.getSize() == 2 ? POP2 : POP);
+        } else if (output.equals(Type.VOID_TYPE)) {
+            visitor.visitInsn(ACONST_NULL);
+        } else if (output.equals(returnType)) {
+            return;
+        } else if (!isReference(output) && !isReference(returnType)) {
+            ConverterVisitor.convert(visitor, output, returnType);
+        } else {
+            if (!isReference(output)) {
+                Type boxed = boxed(output);
+                visitor.visitMethodInsn(INVOKESTATIC, boxed.getInternalName(), "valueOf",
+                        Type.getMethodDescriptor(boxed, output), false);
+                if (boxed.equals(returnType)) return;
+            }
+            if (!returnType.equals(Type.getType(Object.class))) visitor.visitTypeInsn(CHECKCAST, returnType.getInternalName());
+        }
+    }
+
+    private static boolean isReference(Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
+    }
+
+    private static boolean isNumeric(Type type) {
+        return switch (type.getSort()) {
+            case Type.BYTE, Type.SHORT, Type.INT, Type.LONG, Type.FLOAT, Type.DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+    private static Type boxed(Type primitive) {
+        return Type.getObjectType(switch (primitive.getSort()) {
+            case Type.BOOLEAN -> "java/lang/Boolean";
+            case Type.CHAR -> "java/lang/Character";
+            case Type.BYTE -> "java/lang/Byte";
+            case Type.SHORT -> "java/lang/Short";
+            case Type.INT -> "java/lang/Integer";
+            case Type.FLOAT -> "java/lang/Float";
+            case Type.LONG -> "java/lang/Long";
+            default -> "java/lang/Double";
+        });
+    }
+
+    /**
+     * Collects labels that can be reached by a jump, those can not be inside a rewritten call site.
+     *
+     * @param method method
+     * @return jump target labels
+     */
+    private static Set<LabelNode> jumpTargets(MethodNode method) {
+        Set<LabelNode> labels = new HashSet<>();
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction instanceof JumpInsnNode jump) {
+                labels.add(jump.label);
+            } else if (instruction instanceof TableSwitchInsnNode tableSwitch) {
+                labels.add(tableSwitch.dflt);
+                labels.addAll(tableSwitch.labels);
+            } else if (instruction instanceof LookupSwitchInsnNode lookupSwitch) {
+                labels.add(lookupSwitch.dflt);
+                labels.addAll(lookupSwitch.labels);
+            }
+        }
+        for (TryCatchBlockNode block : method.tryCatchBlocks)
+            labels.add(block.handler);
+        return labels;
+    }
+
+    private static boolean contains(byte[] bytes, byte[] sequence) {
+        outer:
+        for (int i = 0; i <= bytes.length - sequence.length; i++) {
+            for (int j = 0; j < sequence.length; j++) {
+                if (bytes[i + j] != sequence[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Window call with the argument array created in place.
+     *
+     * @param size instruction pushing the size of the array
+     * @param array array creation instruction
+     * @param elements elements stored into the array
+     * @param call window method call
+     */
+    private record CallSite(AbstractInsnNode size, AbstractInsnNode array, List<Element> elements, MethodInsnNode call) {
+
+        /**
+         * Matches the call site of given window method call.
+         *
+         * @param call window method call
+         * @param jumpTargets labels that can be reached by a jump
+         * @return call site, or null if it does not follow the pattern
+         */
+        static @Nullable CallSite match(MethodInsnNode call, Set<LabelNode> jumpTargets) {
+            Deque<Element> elements = new ArrayDeque<>();
+            AbstractInsnNode current = previous(call, jumpTargets);
+            while (current != null && current.getOpcode() == AASTORE) {
+                AbstractInsnNode store = current;
+                AbstractInsnNode value = previous(store, jumpTargets);
+                MethodInsnNode boxing = null;
+                if (value instanceof MethodInsnNode method && isBoxing(method)) {
+                    boxing = method;
+                    value = previous(value, jumpTargets);
+                }
+                if (value == null || !isLoad(value)) return null;
+                AbstractInsnNode index = previous(value, jumpTargets);
+                AbstractInsnNode dup = index != null ? previous(index, jumpTargets) : null;
+                if (dup == null || dup.getOpcode() != DUP) return null;
+                Integer position = intConstant(index);
+                if (position == null) return null;
+                elements.addFirst(new Element(dup, index, value, boxing, store, position));
+                current = previous(dup, jumpTargets);
+            }
+            if (!(current instanceof TypeInsnNode array)
+                    || array.getOpcode() != ANEWARRAY
+                    || !array.desc.equals("java/lang/Object")) return null;
+            AbstractInsnNode size = previous(array, jumpTargets);
+            Integer length = size != null ? intConstant(size) : null;
+            if (length == null || length != elements.size()) return null;
+
+            List<Element> ordered = List.copyOf(elements);
+            for (int i = 0; i < ordered.size(); i++) {
+                if (ordered.get(i).position() != i) return null;
+            }
+            return new CallSite(size, array, ordered, call);
+        }
+
+        /**
+         * Returns types of the bridge parameters for the argument array elements.
+         *
+         * @param target target of the window method
+         * @return parameter types, or null if the arguments would be converted differently
+         */
+        Type @Nullable [] bridgeArguments(TargetSpec target) {
+            Type[] parameters = Vitrum.getArgumentTypes(target);
+            if (elements.size() < parameters.length) return null;
+
+            Type[] arguments = new Type[elements.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                Type parameter = i < parameters.length ? parameters[i] : null;
+                Element element = elements.get(i);
+                if (parameter == null || isReference(parameter)) {
+                    arguments[i] = Type.getType(Object.class);
+                    continue;
+                }
+                if (element.boxing() == null) return null;
+                Type primitive = Type.getArgumentTypes(element.boxing().desc)[0];
+                if (!primitive.equals(parameter) && !(isNumeric(primitive) && isNumeric(parameter))) return null;
+                arguments[i] = primitive;
+            }
+            return arguments;
+        }
+
+        /**
+         * Removes the argument array and replaces the window call.
+         *
+         * @param instructions instructions of the method
+         * @param bridge call of the bridge method
+         */
+        void rewrite(InsnList instructions, MethodInsnNode bridge) {
+            Type[] arguments = Type.getArgumentTypes(bridge.desc);
+            instructions.remove(size);
+            instructions.remove(array);
+            for (int i = 0; i < elements.size(); i++) {
+                Element element = elements.get(i);
+                instructions.remove(element.dup());
+                instructions.remove(element.index());
+                instructions.remove(element.store());
+                if (element.boxing() != null && !isReference(arguments[i + 2])) instructions.remove(element.boxing());
+            }
+            instructions.set(call, bridge);
+        }
+
+        private static @Nullable AbstractInsnNode previous(AbstractInsnNode instruction, Set<LabelNode> jumpTargets) {
+            AbstractInsnNode previous = instruction.getPrevious();
+            while (previous != null) {
+                if (previous instanceof FrameNode) return null;
+                if (previous instanceof LabelNode label && jumpTargets.contains(label)) return null;
+                if (previous.getOpcode() >= 0) return previous;
+                previous = previous.getPrevious();
+            }
+            return null;
+        }
+
+        private static boolean isLoad(AbstractInsnNode instruction) {
+            int opcode = instruction.getOpcode();
+            return (opcode >= ACONST_NULL && opcode <= LDC)
+                    || (opcode >= ILOAD && opcode <= ALOAD)
+                    || opcode == GETSTATIC;
+        }
+
+        private static boolean isBoxing(MethodInsnNode method) {
+            if (method.getOpcode() != INVOKESTATIC || !method.name.equals("valueOf")) return false;
+            Type[] arguments = Type.getArgumentTypes(method.desc);
+            return arguments.length == 1
+                    && !isReference(arguments[0])
+                    && Type.getReturnType(method.desc).equals(boxed(arguments[0]))
+                    && method.owner.equals(boxed(arguments[0]).getInternalName());
+        }
+
+        private static @Nullable Integer intConstant(AbstractInsnNode instruction) {
+            int opcode = instruction.getOpcode();
+            if (opcode >= ICONST_M1 && opcode <= ICONST_5) return opcode - ICONST_0;
+            if (opcode == BIPUSH || opcode == SIPUSH) return ((IntInsnNode) instruction).operand;
+            if (instruction instanceof LdcInsnNode ldc && ldc.cst instanceof Integer value) return value;
+            return null;
+        }
+
+    }
+
+    /**
+     * Element stored into the argument array.
+     *
+     * @param dup duplication of the array
+     * @param index instruction pushing the index
+     * @param value instruction loading the value
+     * @param boxing boxing of the value, null if it is not boxed
+     * @param store array store instruction
+     * @param position index of the element
+     */
+    private record Element(AbstractInsnNode dup,
+                           AbstractInsnNode index,
+                           AbstractInsnNode value,
+                           @Nullable MethodInsnNode boxing,
+                           AbstractInsnNode store,
+                           int position) {
+    }
+
+    /**
+     * Arguments of bridge methods, instance is the second parameter and arguments
+     * are the following parameters.
+     *
+     * @param arguments types of the argument parameters
+     */
+    private record BridgeArguments(Type[] arguments) implements TargetArguments {
+
+        @Override
+        public void loadInstance(MethodVisitor visitor, Type source) {
+            visitor.visitVarInsn(ALOAD, 1);
+            if (!source.equals(Type.getType(Object.class))) visitor.visitTypeInsn(CHECKCAST, source.getInternalName());
+        }
+
+        @Override
+        public void loadArgument(MethodVisitor visitor, int index, Type type) {
+            int slot = 2;
+            for (int i = 0; i < index; i++) slot += arguments[i].getSize();
+            Type argument = arguments[index];
+            visitor.visitVarInsn(argument.getOpcode(ILOAD), slot);
+            if (!isReference(argument)) {
+                ConverterVisitor.convert(visitor, argument, type);
+            } else if (!type.equals(Type.getType(Object.class))) {
+                visitor.visitTypeInsn(CHECKCAST, type.getInternalName());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,188 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Resolves targets of window methods and accessibility of the targeted class members
+ * from the class files visible to a class loader, without loading any classes.
+ * <p>
+ * Each index is used only for a single class loader, which is not held by the index.
+ */
+final class WindowIndex {
+
+    private final String handler;
+    private final @Nullable Mappings mappings;
+
+    private final Map<String, Optional<ClassNode>> classes = new HashMap<>();
+    private final Map<String, Map<String, TargetSpec>> tables = new HashMap<>();
+    private final Map<String, Optional<TargetSpec>> targets = new HashMap<>();
+
+    WindowIndex(String handler, @Nullable Mappings mappings) {
+        this.handler = handler;
+        this.mappings = mappings;
+    }
+
+    /**
+     * Returns target of a window method that can be called directly from classes
+     * of the class loader.
+     *
+     * @param loader class loader of the calling class
+     * @param owner internal name of the window interface
+     * @param name name of the window method
+     * @param descriptor descriptor of the window method
+     * @return target, or null if the method is not a window method with a public
+     * non-reflective target for the handler
+     */
+    synchronized @Nullable TargetSpec getTarget(ClassLoader loader, String owner, String name, String descriptor) {
+        String key = owner + '.' + name + descriptor;
+        Optional<TargetSpec> target = targets.get(key);
+        if (target == null) targets.put(key, target = Optional.ofNullable(resolve(loader, owner, name, descriptor)));
+        return target.orElse(null);
+    }
+
+    private @Nullable TargetSpec resolve(ClassLoader loader, String owner, String name, String descriptor) {
+        ClassNode declaring = findDeclaringInterface(loader, owner, name, descriptor, new HashSet<>());
+        if (declaring == null) return null;
+        MethodNode method = findMethod(declaring, name, descriptor);
+        if (method == null || (method.access & ACC_ABSTRACT) == 0) return null;
+
+        TargetSpec target = getTargets(loader, declaring.name).get(name + descriptor);
+        if (target == null) return null;
+        if (mappings != null) target = mappings.remap(target);
+        // iteration of arrays uses loops that are not accessible from other packages
+        if (target.action() == Target.Action.FOR_EACH) return null;
+        if (target.reflective() || target.nestmate() || target.cached() || !target.affinity().isEmpty()) return null;
+        if (target.isStatic() && (target.action() == Target.Action.CALL_CONSTRUCTOR || !Vitrum.isMemberAction(target.action())))
+            return null;
+        return isAccessible(loader, target) ? target : null;
+    }
+
+    /**
+     * Finds the interface declaring an abstract or default method, searching the interface
+     * and its super interfaces.
+     *
+     * @param loader class loader
+     * @param owner internal name of the interface
+     * @param name name of the method
+     * @param descriptor descriptor of the method
+     * @param visited already visited interfaces
+     * @return declaring interface, or null if there is none
+     */
+    private @Nullable ClassNode findDeclaringInterface(ClassLoader loader, String owner, String name, String descriptor, Set<String> visited) {
+        if (!visited.add(owner)) return null;
+        ClassNode node = read(loader, owner);
+        if (node == null || (node.access & ACC_INTERFACE) == 0) return null;
+        if (findMethod(node, name, descriptor) != null) return node;
+        for (String parent : node.interfaces) {
+            ClassNode declaring = findDeclaringInterface(loader, parent, name, descriptor, visited);
+            if (declaring != null) return declaring;
+        }
+        return null;
+    }
+
+    private static @Nullable MethodNode findMethod(ClassNode node, String name, String descriptor) {
+        for (MethodNode method : node.methods) {
+            if (method.name.equals(name) && method.desc.equals(descriptor)) return method;
+        }
+        return null;
+    }
+
+    /**
+     * Returns targets of the handler declared by an interface, read by {@link TargetReader}.
+     *
+     * @param loader class loader
+     * @param owner internal name of the interface
+     * @return targets mapped by the method names and descriptors
+     */
+    private Map<String, TargetSpec> getTargets(ClassLoader loader, String owner) {
+        Map<String, TargetSpec> table = tables.get(owner);
+        if (table == null) {
+            ClassReader reader = reader(loader, owner);
+            tables.put(owner, table = reader != null ? TargetReader.read(reader, handler) : Map.of());
+        }
+        return table;
+    }
+
+    /**
+     * Checks whether the target class and member are public and visible to the class loader.
+     *
+     * @param loader class loader
+     * @param target target
+     * @return whether the target can be accessed directly
+     */
+    private boolean isAccessible(ClassLoader loader, TargetSpec target) {
+        ClassNode source = read(loader, target.source());
+        if (source == null || (source.access & ACC_PUBLIC) == 0) return false;
+        if (!Vitrum.isMemberAction(target.action())) return true;
+        if (target.action() == Target.Action.CALL_CONSTRUCTOR)
+            return (source.access & ACC_ABSTRACT) == 0 && isPublicMethod(source, "<init>", target.descriptor(), false);
+
+        for (ClassNode node = source; node != null; node = node.superName != null ? read(loader, node.superName) : null) {
+            if (target.action() == Target.Action.CALL_METHOD) {
+                if (isPublicMethod(node, target.name(), target.descriptor(), target.isStatic())) return true;
+                continue;
+            }
+            for (FieldNode field : node.fields) {
+                if (!field.name.equals(target.name()) || !field.desc.equals(target.descriptor())) continue;
+                return (field.access & ACC_PUBLIC) != 0
+                        && ((field.access & ACC_STATIC) != 0) == target.isStatic()
+                        && (target.action() == Target.Action.GET_FIELD || (field.access & ACC_FINAL) == 0);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPublicMethod(ClassNode node, String name, String descriptor, boolean isStatic) {
+        for (MethodNode method : node.methods) {
+            if (!method.name.equals(name) || !method.desc.equals(descriptor)) continue;
+            return (method.access & ACC_PUBLIC) != 0 && ((method.access & ACC_STATIC) != 0) == isStatic;
+        }
+        return false;
+    }
+
+    /**
+     * Reads class structure, without the method code.
+     *
+     * @param loader class loader
+     * @param internalName internal name of the class
+     * @return class node, or null if the class file is not visible to the class loader
+     */
+    private @Nullable ClassNode read(ClassLoader loader, String internalName) {
+        Optional<ClassNode> cached = classes.get(internalName);
+        if (cached != null) return cached.orElse(null);
+        ClassReader reader = reader(loader, internalName);
+        ClassNode node = null;
+        if (reader != null) {
+            node = new ClassNode();
+            reader.accept(node, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        }
+        classes.put(internalName, Optional.ofNullable(node));
+        return node;
+    }
+
+    /**
+     * Opens class file visible to a class loader.
+     *
+     * @param loader class loader
+     * @param internalName internal name of the class
+     * @return reader of the class file, or null if it is not visible to the class loader
+     */
+    private static @Nullable ClassReader reader(ClassLoader loader, String internalName) {
+        try (InputStream input = loader.getResourceAsStream(internalName + ".class")) {
+            return input != null ? new ClassReader(input) : null;
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package me.pesekjak.vitrum;
+
+public class AgentCaller {
+
+    public static int plusOne(AgentTestInterface window, AgentTestInstance instance, int value) {
+        return window.plusOne(instance, value);
+    }
+
+    public static Object twice(AgentTestInterface window, AgentTestInstance instance, int value) {
+        return window.twice(instance, value);
+    }
+
+    public static String name(AgentTestInterface window, AgentTestInstance instance) {
+        return window.name(instance, "name");
+    }
+
+    public static void value(AgentTestInterface window, AgentTestInstance instance, double value) {
+        window.value(instance, value);
+    }
+
+    public static AgentTestInstance construct(AgentTestInterface window) {
+        return window.construct(null, 5);
+    }
+
+    public static long sum(AgentTestInterface window) {
+        return window.sum(null, 1, 2);
+    }
+
+    public static int boxed(AgentTestInterface window, AgentTestInstance instance, Integer value) {
+        return window.plusOne(instance, value);
+    }
+
+    public static int conditional(AgentTestInterface window, AgentTestInstance instance, boolean flag) {
+        return window.plusOne(instance, flag ? 1 : 2);
+    }
+
+    public static int hidden(AgentTestInterface window, AgentTestInstance instance) {
+        return window.hidden(instance);
+    }
+
+}
@@ -0,0 +1,35 @@
+package me.pesekjak.vitrum;
+
+public class AgentTestInstance {
+
+    public int number;
+    public double value;
+
+    public AgentTestInstance() {
+    }
+
+    public AgentTestInstance(int number) {
+        this.number = number;
+    }
+
+    public int plusOne(int value) {
+        return value + 1;
+    }
+
+    public long twice(long value) {
+        return value * 2;
+    }
+
+    public String name(String prefix) {
+        return prefix + number;
+    }
+
+    public static int sum(int first, Integer second) {
+        return first + second;
+    }
+
+    private int hidden() {
+        return number;
+    }
+
+}
@@ -0,0 +1,26 @@
+package me.pesekjak.vitrum;
+
+public interface AgentTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "plusOne", descriptor = "(I)I")
+    int plusOne(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "twice", descriptor = "(J)J")
+    Object twice(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "name", descriptor = "(Ljava/lang/String;)Ljava/lang/String;")
+    String name(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "value", descriptor = "D", action = Target.Action.SET_FIELD)
+    void value(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "<init>", descriptor = "(I)V", action = Target.Action.CALL_CONSTRUCTOR)
+    AgentTestInstance construct(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "sum", descriptor = "(ILjava/lang/Integer;)I", isStatic = true)
+    long sum(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/AgentTestInstance", name = "hidden", descriptor = "()I", reflective = true)
+    int hidden(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,108 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+
+public class AgentVitrumTest {
+
+    @Test
+    public void testInlined() throws Exception {
+        byte[] transformed = transform();
+        Class<?> caller = define(transformed);
+        AgentTestInterface window = Vitrum.createWindow(AgentTestInterface.class, "v1");
+        AgentTestInstance instance = new AgentTestInstance(3);
+
+        assert (int) invoke(caller, "plusOne", window, instance, 1) == 2;
+        assert invoke(caller, "twice", window, instance, 4).equals(8L);
+        assert invoke(caller, "name", window, instance).equals("name3");
+        invoke(caller, "value", window, instance, 2.5);
+        assert instance.value == 2.5;
+        assert ((AgentTestInstance) invoke(caller, "construct", window)).number == 5;
+        assert (long) invoke(caller, "sum", window) == 3;
+
+        for (String method : new String[] {"plusOne", "twice", "name", "value", "construct", "sum"})
+            assert !callsWindow(transformed, method) : method;
+    }
+
+    @Test
+    public void testUnsafeCallSites() throws Exception {
+        byte[] transformed = transform();
+        Class<?> caller = define(transformed);
+        AgentTestInterface window = Vitrum.createWindow(AgentTestInterface.class, "v1");
+        AgentTestInstance instance = new AgentTestInstance(3);
+
+        assert (int) invoke(caller, "boxed", window, instance, 1) == 2;
+        assert (int) invoke(caller, "conditional", window, instance, true) == 2;
+        assert (int) invoke(caller, "hidden", window, instance) == 3;
+        for (String method : new String[] {"boxed", "conditional", "hidden"})
+            assert callsWindow(transformed, method) : method;
+    }
+
+    @Test
+    public void testNullWindow() throws Exception {
+        Class<?> caller = define(transform());
+        InvocationTargetException exception = Assertions.assertThrows(InvocationTargetException.class,
+                () -> invoke(caller, "plusOne", null, new AgentTestInstance(), 1));
+        assert exception.getCause() instanceof NullPointerException;
+    }
+
+    @Test
+    public void testOtherHandler() throws IOException {
+        assert VitrumAgent.transformer("v2").transform(AgentVitrumTest.class.getClassLoader(), read()) == null;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VitrumAgent.transformer(""));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> VitrumAgent.transformer("v1,unknown"));
+    }
+
+    private static byte[] read() throws IOException {
+        try (InputStream input = AgentVitrumTest.class.getResourceAsStream("AgentCaller.class")) {
+            assert input != null;
+            return input.readAllBytes();
+        }
+    }
+
+    private static byte[] transform() throws IOException {
+        byte[] transformed = VitrumAgent.transformer("v1").transform(AgentVitrumTest.class.getClassLoader(), read());
+        assert transformed != null;
+        return transformed;
+    }
+
+    private static Class<?> define(byte[] bytes) {
+        return new ClassLoader(AgentVitrumTest.class.getClassLoader()) {
+            Class<?> define() {
+                return defineClass(AgentCaller.class.getName(), bytes, 0, bytes.length);
+            }
+        }.define();
+    }
+
+    private static Object invoke(Class<?> caller, String name, Object... arguments) throws Exception {
+        for (Method method : caller.getMethods()) {
+            if (method.getName().equals(name)) return method.invoke(null, arguments);
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private static boolean callsWindow(byte[] bytes, String name) {
+        ClassNode node = new ClassNode();
+        new ClassReader(bytes).accept(node, 0);
+        for (MethodNode method : node.methods) {
+            if (!method.name.equals(name)) continue;
+            for (AbstractInsnNode instruction : method.instructions) {
+                if (instruction.getOpcode() == INVOKEINTERFACE || instruction.getOpcode() == ANEWARRAY) return true;
+            }
+        }
+        return false;
+    }
+
+}
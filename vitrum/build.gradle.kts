@@ -1,12 +1,20 @@
 plugins {
     id("java-library-convention")
     `maven-publish`
+    alias(libs.plugins.jmh)
 }
 
 dependencies {
     implementation(libs.asm)
 }
 
+jmh {
+    val jmh: String by project
+    jmhVersion.set(jmh)
+    // benchmarks share the synthetic interfaces of the tests
+    includeTests.set(true)
+}
+
 publishing {
     repositories {
         maven {
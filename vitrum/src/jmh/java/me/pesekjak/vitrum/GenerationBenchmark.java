@@ -0,0 +1,110 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Measures how generation of windows scales with the size of the interface
+ * and the number of handlers in {@link MultiTarget}.
+ * <p>
+ * Each invocation uses a freshly defined synthetic interface, so no window is ever
+ * served from the cache. Startup is measured separately by {@link StartupBenchmark},
+ * as defining the interfaces here loads ASM before the measurement.
+ */
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenerationBenchmark {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    @Param({"10", "100", "1000"})
+    public int methods;
+
+    @Param({"1", "10", "50"})
+    public int handlers;
+
+    private Class<?> window;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IllegalAccessException {
+        window = defineInterface(methods, handlers);
+    }
+
+    @Benchmark
+    public Object createWindow() throws IllegalAccessException {
+        return Vitrum.createWindow(window, "v" + (handlers - 1));
+    }
+
+    @Benchmark
+    public List<byte[]> generate(Footprint footprint) {
+        long allocated = Footprint.allocatedBytes();
+        List<byte[]> classes = Vitrum.generateWindow(window, "v" + (handlers - 1));
+        footprint.allocatedBytes += Footprint.allocatedBytes() - allocated;
+        for (byte[] bytes : classes)
+            footprint.classBytes += bytes.length;
+        return classes;
+    }
+
+    /**
+     * Defines synthetic window interface, each method has a target for every handler.
+     *
+     * @param methods number of methods
+     * @param handlers number of handlers
+     * @return interface class
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    private static Class<?> defineInterface(int methods, int handlers) throws IllegalAccessException {
+        List<String> identifiers = IntStream.range(0, handlers).mapToObj(handler -> "v" + handler).toList();
+        return TestInterfaces.define(
+                "GenerationBenchmarkInterface" + COUNTER.incrementAndGet(),
+                methods,
+                "method",
+                Type.getType(String.class),
+                identifiers,
+                (method, handler, target) -> {
+                    target.visit("source", Type.getInternalName(Instance.class));
+                    target.visit("name", handler % 2 == 0 ? "even" : "odd");
+                    target.visit("descriptor", "()Ljava/lang/String;");
+                }
+        );
+    }
+
+    /**
+     * Size of the generated classes and bytes allocated during their generation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long classBytes;
+        public long allocatedBytes;
+
+        static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+
+    }
+
+    public static class Instance {
+
+        public String even() {
+            return "even";
+        }
+
+        public String odd() {
+            return "odd";
+        }
+
+    }
+
+}
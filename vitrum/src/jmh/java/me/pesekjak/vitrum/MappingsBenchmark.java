@@ -0,0 +1,111 @@
+package me.pesekjak.vitrum;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading of a full-size mapping file by {@link Mappings} with a naive
+ * line by line parser.
+ * <p>
+ * The generated file has a similar shape and size as the Mojang mappings of
+ * a recent version (about 10 000 classes, 40 members each).
+ */
+@State(Scope.Benchmark)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2G")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class MappingsBenchmark {
+
+    private static final int CLASSES = 10_000;
+    private static final int FIELDS = 15;
+    private static final int METHODS = 25;
+
+    private Path file;
+    private Mappings mappings;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("vitrum-mappings", ".txt");
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("# compiler: R8\n# compiler_version: 3.3.28\n");
+            for (int c = 0; c < CLASSES; c++) {
+                writer.write("net.minecraft.world.level.block.entity.SomeBlockEntity" + c + " -> " + obfuscated(c) + ":\n");
+                for (int f = 0; f < FIELDS; f++)
+                    writer.write("    net.minecraft.core.BlockPos field" + f + " -> " + obfuscated(f) + "\n");
+                for (int m = 0; m < METHODS; m++)
+                    writer.write("    " + m + ":" + (m + 4) + ":net.minecraft.world.item.ItemStack method" + m
+                            + "(int,net.minecraft.core.BlockPos,java.lang.String) -> " + obfuscated(FIELDS + m) + "\n");
+            }
+        }
+        mappings = Mappings.load(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mappings = null;
+        System.gc();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Mappings load() throws IOException {
+        return Mappings.load(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, String> loadNaive() throws IOException {
+        Map<String, String> mapped = new HashMap<>();
+        String owner = null;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+                String[] parts = line.trim().split(" -> ");
+                if (!line.startsWith(" ")) {
+                    owner = parts[0];
+                    mapped.put(owner, parts[1].substring(0, parts[1].length() - 1));
+                } else {
+                    String member = parts[0].substring(parts[0].lastIndexOf(':') + 1);
+                    mapped.put(owner + " " + member, parts[1]);
+                }
+            }
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public TargetSpec remap() {
+        return mappings.remap(new TargetSpec(
+                "net/minecraft/world/level/block/entity/SomeBlockEntity" + (CLASSES / 2),
+                "method" + (METHODS / 2),
+                "(ILnet/minecraft/core/BlockPos;Ljava/lang/String;)Lnet/minecraft/world/item/ItemStack;",
+                false,
+                false,
+                Target.Action.CALL_METHOD
+        ));
+    }
+
+    private static String obfuscated(int index) {
+        StringBuilder builder = new StringBuilder();
+        do {
+            builder.append((char) ('a' + index % 26));
+            index /= 26;
+        } while (index > 0);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,105 @@
+package me.pesekjak.vitrum;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the first window of a freshly started JVM, including loading
+ * and warming up of Vitrum and the class generation library.
+ * <p>
+ * Each fork runs a single invocation, the window interface is compiled ahead, so nothing
+ * but the window generation loads ASM. Besides the time, the number of loaded classes and
+ * the metaspace used by the first window are reported.
+ * <p>
+ * {@link #callWindow(Created)} then calls the same window in the steady state, its fork
+ * prints the inlining decisions of the JIT, which should report the window method and
+ * its target as inlined into the benchmark method.
+ */
+@State(Scope.Benchmark)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    private final Instance instance = new Instance();
+
+    @Benchmark
+    public String firstWindow(Footprint footprint) throws IllegalAccessException {
+        long classes = Footprint.loadedClasses();
+        long metaspace = Footprint.metaspaceBytes();
+        String value = Vitrum.createWindow(StartupWindow.class, "v1").value(instance);
+        footprint.loadedClasses += Footprint.loadedClasses() - classes;
+        footprint.metaspaceBytes += Footprint.metaspaceBytes() - metaspace;
+        return value;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-XX:+UnlockDiagnosticVMOptions", "-XX:+PrintInlining"})
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 5)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String callWindow(Created created) {
+        return created.window.value(instance);
+    }
+
+    public interface StartupWindow {
+
+        @Target(handler = "v1", source = "me/pesekjak/vitrum/StartupBenchmark$Instance", name = "value", descriptor = "()Ljava/lang/String;")
+        String value(Object instance, Object... arguments);
+
+    }
+
+    /**
+     * Window created ahead of the measurement.
+     */
+    @State(Scope.Benchmark)
+    public static class Created {
+
+        StartupWindow window;
+
+        @Setup
+        public void setup() throws IllegalAccessException {
+            window = Vitrum.createWindow(StartupWindow.class, "v1");
+        }
+
+    }
+
+    /**
+     * Classes loaded and metaspace used by the first window.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long loadedClasses;
+        public long metaspaceBytes;
+
+        static long loadedClasses() {
+            return ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        }
+
+        static long metaspaceBytes() {
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getName().equals("Metaspace")) used += pool.getUsage().getUsed();
+            }
+            return used;
+        }
+
+    }
+
+    public static class Instance {
+
+        public String value() {
+            return "value";
+        }
+
+    }
+
+}
@@ -1,7 +1,10 @@
 package me.pesekjak.vitrum;
 
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
+import static org.objectweb.asm.Opcodes.*;
+
 /**
  * Utils related to operations with ASM types.
  */
@@ -55,4 +58,23 @@ final class ASMUtil {
         return type.getDescriptor().startsWith("[");
     }
 
+    /**
+     * Pushes int constant using the shortest instruction, unlike
+     * {@link MethodVisitor#visitLdcInsn(Object)} which always uses the constant pool.
+     *
+     * @param visitor visitor
+     * @param value value to push
+     */
+    public static void pushInt(MethodVisitor visitor, int value) {
+        if (value >= -1 && value <= 5) {
+            visitor.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            visitor.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            visitor.visitIntInsn(SIPUSH, value);
+        } else {
+            visitor.visitLdcInsn(value);
+        }
+    }
+
 }
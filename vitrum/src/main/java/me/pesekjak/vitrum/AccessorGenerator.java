@@ -0,0 +1,174 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates implementations of functional interfaces bound to a single target.
+ */
+final class AccessorGenerator {
+
+    private AccessorGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates new accessor.
+     *
+     * @param functionalInterface functional interface to implement
+     * @param target target of the accessor
+     * @return accessor
+     * @param <F> functional interface type
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    @SuppressWarnings("unchecked")
+    static <F> F generate(Class<? super F> functionalInterface, TargetSpec target) throws IllegalAccessException {
+        if (!functionalInterface.isInterface()) throw new IllegalArgumentException();
+        if (target.reflective() && !target.nestmate()) throw new IllegalArgumentException("Accessors can not use reflective targets");
+        if (!target.affinity().isEmpty()) throw new IllegalArgumentException("Accessors can not use targets with an affinity");
+        if (target.cached()) throw new IllegalArgumentException("Accessors can not use cached targets");
+
+        Method method = getFunctionalMethod(functionalInterface);
+        Type methodType = Type.getType(method);
+        Type[] params = methodType.getArgumentTypes();
+
+        boolean hasInstance = Vitrum.hasInstance(target);
+        int expected = (hasInstance ? 1 : 0) + Vitrum.getArgumentTypes(target).length;
+        if (params.length != expected)
+            throw new IllegalArgumentException("Method " + method.getName() + " has " + params.length + " parameters, but its target expects " + expected);
+
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Accessor");
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                type.getInternalName(),
+                null,
+                Type.getInternalName(Object.class),
+                new String[] {Type.getInternalName(functionalInterface)}
+        );
+        Vitrum.writeConstructor(writer);
+
+        MethodVisitor visitor = writer.visitMethod(
+                ACC_PUBLIC,
+                method.getName(),
+                methodType.getDescriptor(),
+                null,
+                null
+        );
+        visitor.visitCode();
+        Type outputType;
+        if (target.nestmate()) {
+            NestmateGenerator.writeCall(target, visitor, new Arguments(params, hasInstance));
+            outputType = NestmateGenerator.getCallType(target).getReturnType();
+        } else {
+            Vitrum.writeNonReflectiveCode(target, visitor, new Arguments(params, hasInstance));
+            outputType = Vitrum.getOutputType(target);
+        }
+        Type returnType = methodType.getReturnType();
+        if (returnType.equals(Type.VOID_TYPE)) {
+            if (outputType.getSize() != 0) visitor.visitInsn(outputType.getSize() == 2 ? POP2 : POP);
+        } else if (outputType.equals(Type.VOID_TYPE)) {
+            if (!ASMUtil.isComplex(returnType) && !ASMUtil.isArray(returnType))
+                throw new IllegalArgumentException("Method " + method.getName() + " needs to return void or an object");
+            visitor.visitInsn(ACONST_NULL);
+        } else {
+            ConverterVisitor.convert(visitor, outputType, returnType);
+        }
+        visitor.visitInsn(returnType.getOpcode(IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+        writer.visitEnd();
+
+        Class<?> accessor = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClass(writer.toByteArray(), true)
+                .lookupClass();
+        try {
+            // the class implements the raw interface, its parameterization is chosen by the caller
+            return (F) functionalInterface.cast(accessor.getConstructor().newInstance());
+        } catch (InvocationTargetException | InstantiationException | NoSuchMethodException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Returns the single abstract method of a functional interface.
+     *
+     * @param functionalInterface functional interface
+     * @return functional method
+     */
+    static Method getFunctionalMethod(Class<?> functionalInterface) {
+        Method found = null;
+        for (Method method : functionalInterface.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) continue;
+            if (found != null && !(found.getName().equals(method.getName())
+                    && Arrays.equals(found.getParameterTypes(), method.getParameterTypes())))
+                throw new IllegalArgumentException(functionalInterface.getName() + " is not a functional interface");
+            found = method;
+        }
+        if (found == null) throw new IllegalArgumentException(functionalInterface.getName() + " is not a functional interface");
+        return found;
+    }
+
+    /**
+     * @param method method to check
+     * @return whether the method is a public method of {@link Object}
+     */
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Arguments of the functional method, converted directly to the types of the target.
+     */
+    private static final class Arguments implements TargetArguments {
+
+        private final Type[] params;
+        private final int[] slots;
+        private final int offset;
+
+        Arguments(Type[] params, boolean hasInstance) {
+            this.params = params;
+            this.offset = hasInstance ? 1 : 0;
+            slots = new int[params.length];
+            int slot = 1;
+            for (int i = 0; i < params.length; i++) {
+                slots[i] = slot;
+                slot += params[i].getSize();
+            }
+        }
+
+        @Override
+        public void loadInstance(MethodVisitor visitor, Type source) {
+            load(visitor, 0, source);
+        }
+
+        @Override
+        public void loadArgument(MethodVisitor visitor, int index, Type type) {
+            load(visitor, index + offset, type);
+        }
+
+        private void load(MethodVisitor visitor, int param, Type type) {
+            visitor.visitVarInsn(params[param].getOpcode(ILOAD), slots[param]);
+            ConverterVisitor.convert(visitor, params[param], type);
+        }
+
+    }
+
+}
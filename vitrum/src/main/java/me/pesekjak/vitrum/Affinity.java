@@ -0,0 +1,128 @@
+package me.pesekjak.vitrum;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread that targets with {@link Target#affinity()} have to be called on.
+ * <p>
+ * Calls from other threads are queued and performed together by {@link #drain()},
+ * which is scheduled using the provided executor once per batch of queued calls.
+ * The executor is expected to run the drain on the affine thread, for example
+ * by scheduling it for the next server tick.
+ *
+ * @since 1.3.0
+ */
+public final class Affinity {
+
+    private final Thread thread;
+    private final Executor executor;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private Affinity(Thread thread, Executor executor) {
+        this.thread = thread;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates new affinity.
+     *
+     * @param thread affine thread
+     * @param executor executor running tasks on the affine thread
+     * @return affinity
+     * @since 1.3.0
+     */
+    public static Affinity of(Thread thread, Executor executor) {
+        return new Affinity(Objects.requireNonNull(thread), Objects.requireNonNull(executor));
+    }
+
+    /**
+     * @return affine thread
+     * @since 1.3.0
+     */
+    public Thread thread() {
+        return thread;
+    }
+
+    /**
+     * @return whether the current thread is the affine thread
+     * @since 1.3.0
+     */
+    public boolean isCurrent() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Performs all queued calls.
+     * <p>
+     * Drain is scheduled automatically, but can be also called manually, for example
+     * at the end of each tick.
+     *
+     * @throws IllegalStateException if not called on the affine thread
+     * @since 1.3.0
+     */
+    public void drain() {
+        if (!isCurrent()) throw new IllegalStateException("Affinity can be drained only on " + thread.getName());
+        scheduled.set(false);
+        Runnable task;
+        while ((task = queue.poll()) != null) task.run();
+    }
+
+    /**
+     * Queues a call of the task generated for a window method.
+     *
+     * @param task task with the {@code (Object, Object[])Object} type
+     * @param instance instance passed to the window method
+     * @param arguments arguments passed to the window method
+     * @return future completed once the call is performed
+     */
+    CompletableFuture<Object> submit(MethodHandle task, Object instance, Object[] arguments) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        queue.add(() -> {
+            try {
+                future.complete((Object) task.invokeExact(instance, arguments));
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+        if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        return future;
+    }
+
+    /**
+     * Bootstrap method of the dynamic constants holding affinities of generated classes.
+     *
+     * @param lookup lookup of the generated class
+     * @param name name of the constant
+     * @param type type of the constant
+     * @param affinity name of the affinity
+     * @return registered affinity
+     */
+    static Affinity bootstrap(MethodHandles.Lookup lookup, String name, Class<?> type, String affinity) {
+        Affinity registered = Vitrum.getAffinity(affinity);
+        if (registered == null) throw new IllegalStateException("No affinity registered as " + affinity);
+        return registered;
+    }
+
+    /**
+     * Bootstrap method of the dynamic constants holding tasks of generated window methods.
+     *
+     * @param lookup lookup of the generated class
+     * @param name name of the task method
+     * @param type type of the constant
+     * @return task method handle
+     * @throws ReflectiveOperationException if the task method can not be found
+     */
+    static MethodHandle bootstrapTask(MethodHandles.Lookup lookup, String name, Class<?> type) throws ReflectiveOperationException {
+        return lookup.findStatic(lookup.lookupClass(), name, MethodType.methodType(Object.class, Object.class, Object[].class));
+    }
+
+}
@@ -0,0 +1,180 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates windows bound to a single instance.
+ * <p>
+ * The instance is stored as class data of a hidden class and loaded using a dynamic
+ * constant, so it is a true constant for the JIT compiler.
+ */
+final class BoundWindowGenerator {
+
+    private static final Handle CLASS_DATA = new Handle(
+            H_INVOKESTATIC,
+            Type.getInternalName(MethodHandles.class),
+            "classData",
+            Type.getMethodDescriptor(
+                    Type.getType(Object.class),
+                    Type.getType(MethodHandles.Lookup.class),
+                    Type.getType(String.class),
+                    Type.getType(Class.class)
+            ),
+            false
+    );
+
+    private BoundWindowGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates new window bound to given instance.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @param instance instance the window is bound to
+     * @return window implementation
+     * @param <T> window type
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static <T> T create(Class<T> clazz, String handler, Object instance) throws IllegalAccessException {
+        if (!clazz.isInterface()) throw new IllegalArgumentException();
+        if (instance == null) throw new IllegalArgumentException("Bound instance can not be null");
+
+        Class<?> implementation = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClassWithClassData(generate(clazz, handler, instance), instance, true)
+                .lookupClass();
+        return Vitrum.instantiate(clazz, implementation);
+    }
+
+    /**
+     * Generates bound window class.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @param instance instance the window is bound to
+     * @return bytes of the window implementation class
+     */
+    private static byte[] generate(Class<?> clazz, String handler, Object instance) {
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Bound");
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                type.getInternalName(),
+                null,
+                Type.getType(Object.class).getInternalName(),
+                new String[] {Type.getType(clazz).getInternalName(), Type.getInternalName(Window.class)}
+        );
+        Vitrum.writeConstructor(writer);
+        for (Method method : clazz.getMethods()) {
+            if (!Vitrum.isWindowMethod(method)) continue;
+            TargetSpec target = Vitrum.getTarget(method, handler);
+            if (target != null) checkInstance(method, target, instance);
+            writeMethod(writer, method, target, handler);
+        }
+        SupportedNames.writeSupports(writer, clazz, handler);
+        writer.visitEnd();
+
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        return bytes;
+    }
+
+    /**
+     * Checks whether the bound instance can be used by given target, so the window
+     * fails on creation instead of its first call.
+     *
+     * @param method method of the window interface
+     * @param target target of the method
+     * @param instance instance the window is bound to
+     */
+    private static void checkInstance(Method method, TargetSpec target, Object instance) {
+        if (!Vitrum.hasInstance(target) || target.reflective() || !Vitrum.isMemberAction(target.action())) return;
+        Class<?> source;
+        try {
+            source = Class.forName(target.source().replace('/', '.'), false, Vitrum.class.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new RuntimeException(exception);
+        }
+        if (!source.isInstance(instance))
+            throw new IllegalArgumentException("Instance of " + instance.getClass().getName() + " can not be bound to method "
+                    + method.getName() + " targeting " + source.getName());
+    }
+
+    /**
+     * Writes bound window method.
+     *
+     * @param writer writer
+     * @param method method to implement
+     * @param target target of the method, null if the handler does not implement it
+     * @param handler handler identifier
+     */
+    private static void writeMethod(ClassWriter writer, Method method, TargetSpec target, String handler) {
+        Class<?>[] params = method.getParameterTypes();
+        if (params.length != 1 || params[0] != Object[].class)
+            throw new RuntimeException("Illegal method " + method.getName() + ", does not follow the 'Object[]' arguments");
+
+        Type callingMethod = Type.getType(method);
+        MethodVisitor visitor = writer.visitMethod(
+                ACC_PUBLIC,
+                method.getName(),
+                callingMethod.getDescriptor(),
+                null,
+                null
+        );
+        visitor.visitCode();
+        if (target == null) {
+            Vitrum.writeUnsupported(visitor, method, callingMethod.getReturnType());
+        } else {
+            Vitrum.writeTarget(visitor, target, callingMethod.getReturnType(), Arguments.INSTANCE, method.getName(), handler);
+        }
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Arguments of bound window methods, the instance is the class data
+     * and arguments are elements of the only parameter array.
+     */
+    private static final class Arguments implements TargetArguments {
+
+        static final Arguments INSTANCE = new Arguments();
+
+        @Override
+        public void loadInstance(MethodVisitor visitor, Type source) {
+            visitor.visitLdcInsn(new ConstantDynamic("_", source.getDescriptor(), CLASS_DATA));
+        }
+
+        @Override
+        public void loadArgument(MethodVisitor visitor, int index, Type type) {
+            visitor.visitVarInsn(ALOAD, 1);
+            ASMUtil.pushInt(visitor, index);
+            visitor.visitInsn(AALOAD);
+            if (!type.equals(Type.getType(Object.class))) ConverterVisitor.convertTopObject(visitor, type);
+        }
+
+        @Override
+        public void loadInstanceObject(MethodVisitor visitor) {
+            visitor.visitLdcInsn(new ConstantDynamic("_", Type.getDescriptor(Object.class), CLASS_DATA));
+        }
+
+        @Override
+        public void loadArgumentArray(MethodVisitor visitor) {
+            visitor.visitVarInsn(ALOAD, 1);
+        }
+
+    }
+
+}
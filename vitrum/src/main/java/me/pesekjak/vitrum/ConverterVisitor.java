@@ -35,7 +35,7 @@ final class ConverterVisitor {
      * @param target target type
      */
     public static void convertTopPrimitive(MethodVisitor methodVisitor, Type target) {
-        visitAutoBoxer(methodVisitor, target);
+        visitBoxer(methodVisitor, target);
     }
 
     /**
@@ -45,18 +45,144 @@ final class ConverterVisitor {
      * @param primitiveType primitive type to convert from
      */
     public static void convertTopPrimitiveToObject(MethodVisitor methodVisitor, Type primitiveType) {
-        Type target = switch (primitiveType.getDescriptor().charAt(0)) {
-            case 'Z' -> Type.getType(Boolean.class);
-            case 'C' -> Type.getType(Character.class);
-            case 'B' -> Type.getType(Byte.class);
-            case 'S' -> Type.getType(Short.class);
-            case 'I' -> Type.getType(Integer.class);
-            case 'F' -> Type.getType(Float.class);
-            case 'J' -> Type.getType(Long.class);
-            case 'D' -> Type.getType(Double.class);
+        convertTopPrimitive(methodVisitor, Type.getType(boxedName(primitiveType)));
+    }
+
+    /**
+     * Converts value on the top of the stack from one type to another.
+     * <p>
+     * Primitives are converted directly using the conversion instructions, boxing
+     * and unboxing is used only if converting between primitive and object.
+     *
+     * @param methodVisitor method visitor
+     * @param from type of the value on the stack
+     * @param to target type
+     */
+    public static void convert(MethodVisitor methodVisitor, Type from, Type to) {
+        if (from.equals(to)) return;
+        boolean primitiveFrom = ASMUtil.isPrimitive(from) && !ASMUtil.isArray(from);
+        boolean primitiveTo = ASMUtil.isPrimitive(to) && !ASMUtil.isArray(to);
+
+        if (primitiveFrom && primitiveTo) {
+            convertPrimitive(methodVisitor, from, to);
+        } else if (primitiveFrom) {
+            convertTopPrimitiveToObject(methodVisitor, from);
+            if (!to.equals(Type.getType(Object.class))) methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, to.getInternalName());
+        } else if (!to.equals(Type.getType(Object.class))) {
+            convertTopObject(methodVisitor, to);
+        }
+    }
+
+    /**
+     * Converts output of a target on the top of the stack to the return type of a window method.
+     * <p>
+     * The result is the same as if the value was boxed and then converted using
+     * {@link #convertTopObject(MethodVisitor, Type)}, but boxing and casts are
+     * written only if they change the result, keeping the window methods small.
+     *
+     * @param methodVisitor method visitor
+     * @param from type of the value on the stack
+     * @param to return type
+     */
+    public static void convertOutput(MethodVisitor methodVisitor, Type from, Type to) {
+        if (from.equals(to)) return;
+        boolean primitiveFrom = ASMUtil.isPrimitive(from) && !ASMUtil.isArray(from);
+        boolean primitiveTo = ASMUtil.isPrimitive(to) && !ASMUtil.isArray(to);
+
+        if (primitiveFrom && primitiveTo && isNumeric(from) && isNumeric(to)) {
+            // same as Number#xValue of the boxed value
+            convertPrimitive(methodVisitor, from, to);
+            return;
+        }
+        if (primitiveFrom) {
+            convertTopPrimitiveToObject(methodVisitor, from);
+            from = Type.getType(boxedName(from));
+        }
+        if (primitiveTo) {
+            visitUnboxer(methodVisitor, to);
+        } else if (!to.equals(Type.getType(Object.class)) && !to.equals(from)
+                && !(to.equals(Type.getType(Number.class)) && isNumeric(from))) {
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, to.getInternalName());
+        }
+    }
+
+    /**
+     * Checks whether the type is a primitive number or its boxed counterpart,
+     * excluding characters.
+     *
+     * @param type type to check
+     * @return whether the type is numeric
+     */
+    private static boolean isNumeric(Type type) {
+        return switch (type.getDescriptor()) {
+            case "B", "S", "I", "J", "F", "D",
+                 "Ljava/lang/Byte;", "Ljava/lang/Short;", "Ljava/lang/Integer;",
+                 "Ljava/lang/Long;", "Ljava/lang/Float;", "Ljava/lang/Double;" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns descriptor of the boxed counterpart of a primitive type.
+     *
+     * @param primitiveType primitive type
+     * @return descriptor of the boxed type
+     */
+    private static String boxedName(Type primitiveType) {
+        return switch (primitiveType.getDescriptor().charAt(0)) {
+            case 'Z' -> "Ljava/lang/Boolean;";
+            case 'C' -> "Ljava/lang/Character;";
+            case 'B' -> "Ljava/lang/Byte;";
+            case 'S' -> "Ljava/lang/Short;";
+            case 'I' -> "Ljava/lang/Integer;";
+            case 'F' -> "Ljava/lang/Float;";
+            case 'J' -> "Ljava/lang/Long;";
+            case 'D' -> "Ljava/lang/Double;";
             default -> throw new IllegalArgumentException("Unexpected descriptor: " + primitiveType.getDescriptor());
         };
-        convertTopPrimitive(methodVisitor, target);
+    }
+
+    /**
+     * Converts primitive on the top of the stack to another primitive type.
+     *
+     * @param methodVisitor method visitor
+     * @param from primitive type on the stack
+     * @param to target primitive type
+     */
+    private static void convertPrimitive(MethodVisitor methodVisitor, Type from, Type to) {
+        if (from.getSort() == Type.BOOLEAN || to.getSort() == Type.BOOLEAN)
+            throw new IllegalArgumentException("Can not convert " + from.getClassName() + " to " + to.getClassName());
+
+        int fromSort = widen(from.getSort());
+        int toSort = widen(to.getSort());
+        if (fromSort != toSort) {
+            int opcode = switch (fromSort) {
+                case Type.INT -> toSort == Type.LONG ? Opcodes.I2L : toSort == Type.FLOAT ? Opcodes.I2F : Opcodes.I2D;
+                case Type.LONG -> toSort == Type.INT ? Opcodes.L2I : toSort == Type.FLOAT ? Opcodes.L2F : Opcodes.L2D;
+                case Type.FLOAT -> toSort == Type.INT ? Opcodes.F2I : toSort == Type.LONG ? Opcodes.F2L : Opcodes.F2D;
+                default -> toSort == Type.INT ? Opcodes.D2I : toSort == Type.LONG ? Opcodes.D2L : Opcodes.D2F;
+            };
+            methodVisitor.visitInsn(opcode);
+        }
+
+        switch (to.getSort()) {
+            case Type.BYTE -> methodVisitor.visitInsn(Opcodes.I2B);
+            case Type.CHAR -> methodVisitor.visitInsn(Opcodes.I2C);
+            case Type.SHORT -> methodVisitor.visitInsn(Opcodes.I2S);
+        }
+    }
+
+    /**
+     * Returns the sort used by the JVM to represent values of given sort on the stack.
+     *
+     * @param sort sort of primitive type
+     * @return int, long, float or double sort
+     */
+    private static int widen(int sort) {
+        return switch (sort) {
+            case Type.CHAR, Type.BYTE, Type.SHORT -> Type.INT;
+            default -> sort;
+        };
     }
 
     /**
@@ -88,11 +214,14 @@ final class ConverterVisitor {
 
     /**
      * Visits convertor that boxes primitives.
+     * <p>
+     * Boxing calls {@code valueOf} of the boxed type directly, same as the autoboxing
+     * of the compiler, so it does not take an extra level of the inlining depth.
      *
      * @param methodVisitor method visitor
      * @param target target type
      */
-    private static void visitAutoBoxer(MethodVisitor methodVisitor, Type target) {
+    private static void visitBoxer(MethodVisitor methodVisitor, Type target) {
         Type primitiveCounter = switch (target.getDescriptor()) {
             case "Ljava/lang/Boolean;" -> Type.BOOLEAN_TYPE;
             case "Ljava/lang/Character;" -> Type.CHAR_TYPE;
@@ -106,8 +235,8 @@ final class ConverterVisitor {
         };
         methodVisitor.visitMethodInsn(
                 Opcodes.INVOKESTATIC,
-                Type.getType(AutoBoxer.class).getInternalName(),
-                "box",
+                target.getInternalName(),
+                "valueOf",
                 Type.getMethodDescriptor(target, primitiveCounter),
                 false
         );
@@ -0,0 +1,192 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Iteration of the fields used by {@link Target.Action#FOR_EACH} targets.
+ * <p>
+ * Arrays are iterated by the static loops of this class, other types by their own
+ * {@code forEach} method. If the type has multiple {@code forEach} methods, the one
+ * whose consumer takes the most primitive parameters is used, so for example
+ * {@code forEach(IntConsumer)} of a primitive collection wins over the boxing
+ * {@code forEach(Consumer)} inherited from {@link Iterable}.
+ */
+final class ForEach {
+
+    /**
+     * Orders methods with the same number of primitive consumer parameters, so the
+     * resolution does not depend on the order of {@link Class#getMethods()}.
+     */
+    private static final Comparator<Method> CONSUMER_ORDER = Comparator.comparing(method -> method.getParameterTypes()[0].getName());
+
+    private ForEach() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Resolved way of iterating a field.
+     *
+     * @param owner internal name of the class the iteration method is called on
+     * @param name name of the iteration method
+     * @param descriptor descriptor of the iteration method
+     * @param opcode opcode of the iteration method call
+     * @param isInterface whether the owner is an interface
+     * @param consumer type of the consumer expected by the iteration method
+     */
+    record Iteration(String owner, String name, String descriptor, int opcode, boolean isInterface, Type consumer) {
+    }
+
+    /**
+     * Returns type of the consumer of a target.
+     *
+     * @param target for each target
+     * @return consumer type
+     */
+    static Type getConsumerType(TargetSpec target) {
+        return resolve(target).consumer();
+    }
+
+    /**
+     * Writes iteration of the field value on the top of the stack, the value can be
+     * also typed as {@link Object}.
+     *
+     * @param target for each target
+     * @param visitor visitor
+     * @param arguments loader of the consumer, which is the first argument
+     */
+    static void writeIteration(TargetSpec target, MethodVisitor visitor, TargetArguments arguments) {
+        Iteration iteration = resolve(target);
+        Type owner = iteration.opcode() == INVOKESTATIC
+                ? Type.getArgumentTypes(iteration.descriptor())[0]
+                : Type.getObjectType(iteration.owner());
+        visitor.visitTypeInsn(CHECKCAST, owner.getInternalName());
+        arguments.loadArgument(visitor, 0, iteration.consumer());
+        visitor.visitMethodInsn(iteration.opcode(), iteration.owner(), iteration.name(), iteration.descriptor(), iteration.isInterface());
+    }
+
+    /**
+     * Resolves how a field of a target is iterated.
+     *
+     * @param target for each target
+     * @return iteration
+     */
+    static Iteration resolve(TargetSpec target) {
+        Type type = Type.getType(target.descriptor());
+        if (ASMUtil.isArray(type)) {
+            // arrays of references and nested arrays are iterated as object arrays
+            Type array = type.getDimensions() == 1 && ASMUtil.isPrimitive(type.getElementType())
+                    ? type
+                    : Type.getType(Object[].class);
+            Type consumer = switch (array.getElementType().getSort()) {
+                case Type.BOOLEAN, Type.BYTE, Type.CHAR, Type.SHORT, Type.INT -> Type.getType(IntConsumer.class);
+                case Type.LONG -> Type.getType(LongConsumer.class);
+                case Type.FLOAT, Type.DOUBLE -> Type.getType(DoubleConsumer.class);
+                default -> Type.getType(Consumer.class);
+            };
+            return new Iteration(
+                    Type.getInternalName(ForEach.class),
+                    "forEach",
+                    Type.getMethodDescriptor(Type.VOID_TYPE, array, consumer),
+                    INVOKESTATIC,
+                    false,
+                    consumer
+            );
+        }
+        if (type.getSort() != Type.OBJECT)
+            throw new RuntimeException("Field " + target.name() + " of " + target.source() + " can not be iterated");
+
+        Class<?> fieldClass;
+        try {
+            fieldClass = Class.forName(type.getClassName(), false, Vitrum.class.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new RuntimeException(exception);
+        }
+        Method forEach = null;
+        int best = -1;
+        for (Method method : fieldClass.getMethods()) {
+            if (!method.getName().equals("forEach") || method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers()))
+                continue;
+            Class<?> consumer = method.getParameterTypes()[0];
+            if (!consumer.isInterface() || !Modifier.isPublic(consumer.getModifiers())) continue;
+            int primitives;
+            try {
+                primitives = (int) Arrays.stream(AccessorGenerator.getFunctionalMethod(consumer).getParameterTypes())
+                        .filter(Class::isPrimitive)
+                        .count();
+            } catch (IllegalArgumentException ignored) {
+                continue;
+            }
+            if (primitives > best || (primitives == best && CONSUMER_ORDER.compare(method, forEach) < 0)) {
+                forEach = method;
+                best = primitives;
+            }
+        }
+        if (forEach == null)
+            throw new RuntimeException("Field " + target.name() + " of " + target.source() + " can not be iterated, "
+                    + fieldClass.getName() + " does not have a forEach method");
+
+        // calls on the field type, unless it is not accessible
+        Class<?> owner = Modifier.isPublic(fieldClass.getModifiers()) ? fieldClass : forEach.getDeclaringClass();
+        if (!Modifier.isPublic(owner.getModifiers()))
+            throw new RuntimeException("Field " + target.name() + " of " + target.source() + " can not be iterated, "
+                    + owner.getName() + " is not public");
+        return new Iteration(
+                Type.getInternalName(owner),
+                "forEach",
+                Type.getMethodDescriptor(forEach),
+                owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+                owner.isInterface(),
+                Type.getType(forEach.getParameterTypes()[0])
+        );
+    }
+
+    static void forEach(boolean[] array, IntConsumer consumer) {
+        for (boolean value : array) consumer.accept(value ? 1 : 0);
+    }
+
+    static void forEach(byte[] array, IntConsumer consumer) {
+        for (byte value : array) consumer.accept(value);
+    }
+
+    static void forEach(char[] array, IntConsumer consumer) {
+        for (char value : array) consumer.accept(value);
+    }
+
+    static void forEach(short[] array, IntConsumer consumer) {
+        for (short value : array) consumer.accept(value);
+    }
+
+    static void forEach(int[] array, IntConsumer consumer) {
+        for (int value : array) consumer.accept(value);
+    }
+
+    static void forEach(long[] array, LongConsumer consumer) {
+        for (long value : array) consumer.accept(value);
+    }
+
+    static void forEach(float[] array, DoubleConsumer consumer) {
+        for (float value : array) consumer.accept(value);
+    }
+
+    static void forEach(double[] array, DoubleConsumer consumer) {
+        for (double value : array) consumer.accept(value);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static void forEach(Object[] array, Consumer consumer) {
+        for (Object value : array) consumer.accept(value);
+    }
+
+}
@@ -0,0 +1,91 @@
+package me.pesekjak.vitrum;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ordered table of handler identifiers used by multi-handler windows.
+ * <p>
+ * Methods of multi-handler windows receive the index of the handler in this table
+ * and dispatch to its target, see {@link Vitrum#createWindow(Class, Handlers)}.
+ *
+ * @since 1.3.0
+ */
+public final class Handlers {
+
+    private final String[] handlers;
+    private final Map<String, Integer> indices;
+
+    private Handlers(String[] handlers) {
+        this.handlers = handlers;
+        indices = new HashMap<>();
+        for (int i = 0; i < handlers.length; i++) {
+            if (indices.putIfAbsent(handlers[i], i) != null)
+                throw new IllegalArgumentException("Duplicate handler " + handlers[i]);
+        }
+    }
+
+    /**
+     * Creates new handler table.
+     *
+     * @param handlers handler identifiers, index of each is its position
+     * @return handler table
+     * @since 1.3.0
+     */
+    public static Handlers of(String... handlers) {
+        if (handlers.length == 0) throw new IllegalArgumentException("No handlers provided");
+        for (String handler : handlers) {
+            if (handler == null) throw new IllegalArgumentException("Handler can not be null");
+        }
+        return new Handlers(handlers.clone());
+    }
+
+    /**
+     * Returns index of given handler.
+     *
+     * @param handler handler identifier
+     * @return index of the handler, or -1 if it is not in this table
+     * @since 1.3.0
+     */
+    public int indexOf(String handler) {
+        return indices.getOrDefault(handler, -1);
+    }
+
+    /**
+     * Returns handler at given index.
+     *
+     * @param index index of the handler
+     * @return handler identifier
+     * @since 1.3.0
+     */
+    public String get(int index) {
+        return handlers[index];
+    }
+
+    /**
+     * @return number of the handlers
+     * @since 1.3.0
+     */
+    public int size() {
+        return handlers.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Handlers other)) return false;
+        return Arrays.equals(handlers, other.handlers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(handlers);
+    }
+
+    @Override
+    public String toString() {
+        return "Handlers" + Arrays.toString(handlers);
+    }
+
+}
@@ -0,0 +1,100 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+
+/**
+ * Reports bytecode sizes of the generated window methods.
+ * <p>
+ * HotSpot inlines methods only up to a certain bytecode size, so window methods
+ * that grow past the limits are not inlined into their callers and every call
+ * pays for the dispatch of the window method.
+ * <p>
+ * The audit is enabled using the {@code vitrum.inliningAudit} system property,
+ * each generated window class is then checked and methods over
+ * {@link #FREQ_INLINE_SIZE} are reported as warnings.
+ */
+final class InliningAudit {
+
+    /**
+     * Default value of HotSpot {@code MaxInlineSize}, methods up to this size are
+     * inlined even if they are not called frequently.
+     */
+    static final int MAX_INLINE_SIZE = 35;
+
+    /**
+     * Default value of HotSpot {@code FreqInlineSize}, hot methods over this size
+     * are never inlined.
+     */
+    static final int FREQ_INLINE_SIZE = 325;
+
+    private static final boolean ENABLED = Boolean.getBoolean("vitrum.inliningAudit");
+
+    private static final System.Logger LOGGER = System.getLogger(Vitrum.class.getName());
+
+    private InliningAudit() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks methods of generated class if the audit is enabled.
+     *
+     * @param bytes bytes of the generated class
+     */
+    static void audit(byte[] bytes) {
+        if (!ENABLED) return;
+        ClassReader reader = new ClassReader(bytes);
+        for (Map.Entry<String, Integer> entry : codeSizes(bytes).entrySet()) {
+            int size = entry.getValue();
+            System.Logger.Level level = size > FREQ_INLINE_SIZE
+                    ? System.Logger.Level.WARNING
+                    : size > MAX_INLINE_SIZE ? System.Logger.Level.INFO : System.Logger.Level.DEBUG;
+            LOGGER.log(level, "{0}.{1} has {2} bytes of bytecode{3}",
+                    reader.getClassName(),
+                    entry.getKey(),
+                    size,
+                    size > FREQ_INLINE_SIZE
+                            ? ", over the FreqInlineSize limit of " + FREQ_INLINE_SIZE
+                            : size > MAX_INLINE_SIZE ? ", inlined only if hot" : "");
+        }
+    }
+
+    /**
+     * Returns bytecode sizes of all methods with code in a class.
+     * <p>
+     * The methods are copied to a writer sharing the constant pool of the class, so the
+     * instructions keep their encoding, and the size is the offset of a label placed
+     * after the last instruction.
+     *
+     * @param bytes bytes of the class
+     * @return code lengths mapped by method names and descriptors
+     */
+    static Map<String, Integer> codeSizes(byte[] bytes) {
+        ClassReader reader = new ClassReader(bytes);
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        reader.accept(new ClassVisitor(ASM9, new ClassWriter(reader, 0)) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocals) {
+                        Label end = new Label();
+                        super.visitLabel(end);
+                        sizes.put(name + descriptor, end.getOffset());
+                        super.visitMaxs(maxStack, maxLocals);
+                    }
+                };
+            }
+        }, 0);
+        return sizes;
+    }
+
+}
@@ -0,0 +1,117 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Lazily generated targets of window methods not called by previous runs,
+ * see {@link Vitrum#useProfile(java.nio.file.Path)}.
+ * <p>
+ * Window method of a lazy target only passes its parameters to an {@code invokedynamic}
+ * call site. On the first call, {@link #bootstrap(MethodHandles.Lookup, String, MethodType, Class, String)}
+ * generates hidden class implementing the target as a static method, records the call
+ * in the profile and links the call site to the method permanently.
+ */
+final class LazyTarget {
+
+    private static final Handle BOOTSTRAP = new Handle(
+            H_INVOKESTATIC,
+            Type.getInternalName(LazyTarget.class),
+            "bootstrap",
+            Type.getMethodDescriptor(
+                    Type.getType(CallSite.class),
+                    Type.getType(MethodHandles.Lookup.class),
+                    Type.getType(String.class),
+                    Type.getType(MethodType.class),
+                    Type.getType(Class.class),
+                    Type.getType(String.class)
+            ),
+            false
+    );
+
+    private LazyTarget() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Writes window method with lazily generated target.
+     *
+     * @param writer writer
+     * @param clazz interface class
+     * @param method method of the window interface
+     * @param handler handler identifier
+     */
+    static void writeStub(ClassWriter writer, Class<?> clazz, Method method, String handler) {
+        Type methodType = Type.getType(method);
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, method.getName(), methodType.getDescriptor(), null, null);
+        visitor.visitCode();
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitVarInsn(ALOAD, 2);
+        visitor.visitInvokeDynamicInsn(
+                method.getName(),
+                Type.getMethodDescriptor(methodType.getReturnType(), Type.getType(Object.class), Type.getType(Object[].class)),
+                BOOTSTRAP,
+                Type.getType(clazz),
+                handler
+        );
+        visitor.visitInsn(methodType.getReturnType().getOpcode(IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Bootstrap method of the lazy targets.
+     *
+     * @param lookup lookup of the window class
+     * @param name name of the window method
+     * @param type type of the call site, the window method parameters as static method
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @return call site linked to the generated target
+     * @throws ReflectiveOperationException if the target can not be generated
+     */
+    static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, Class<?> clazz, String handler) throws ReflectiveOperationException {
+        Method method = clazz.getMethod(name, type.parameterArray());
+        TargetSpec target = Objects.requireNonNull(Vitrum.getTarget(method, handler));
+        Type methodType = Type.getType(method);
+        Type targetType = ASMUtil.getType(Vitrum.class.getName() + "_Lazy");
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                targetType.getInternalName(),
+                null,
+                Type.getInternalName(Object.class),
+                null
+        );
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, name, type.toMethodDescriptorString(), null, null);
+        visitor.visitCode();
+        Vitrum.writeTarget(visitor, target, methodType.getReturnType(), Vitrum.PART_ARGUMENTS, name, handler);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+        writer.visitEnd();
+
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        MethodHandles.Lookup hidden = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClass(bytes, true);
+
+        WindowProfile profile = Vitrum.getProfile();
+        if (profile != null) profile.record(WindowProfile.key(clazz, handler, method));
+        return new ConstantCallSite(hidden.findStatic(hidden.lookupClass(), name, type));
+    }
+
+}
@@ -0,0 +1,532 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ProGuard mappings (used for example by Mojang mappings) of a single version.
+ * <p>
+ * The mapping file is memory-mapped and only indexed by offsets of the class and member
+ * names, so no strings are created while loading it.
+ * <p>
+ * Use {@link Vitrum#useMappings(String, Mappings)} to write targets of a handler
+ * using the deobfuscated names.
+ *
+ * @since 1.3.0
+ */
+public final class Mappings {
+
+    private static final int NO_ARGUMENTS = -1;
+
+    private final ByteBuffer buffer;
+
+    // classes, stored as offsets of their deobfuscated and obfuscated names
+    private int classCount;
+    private int[] classes = new int[4 * 1024];
+    private final int[] classTable;
+    private final int[] obfuscatedTable;
+
+    // members, stored as owner class index followed by offsets of their names,
+    // arguments (NO_ARGUMENTS for fields) and obfuscated names
+    private int memberCount;
+    private int[] members = new int[7 * 16 * 1024];
+    private final int[] memberTable;
+
+    private Mappings(ByteBuffer buffer) {
+        this.buffer = buffer;
+        parse();
+        classTable = buildTable(classCount, this::classHash);
+        obfuscatedTable = buildTable(classCount, this::obfuscatedHash);
+        memberTable = buildTable(memberCount, this::memberHash);
+    }
+
+    /**
+     * Loads mappings from a file.
+     *
+     * @param path path to the ProGuard mapping file
+     * @return mappings
+     * @throws IOException if the file can not be read
+     * @since 1.3.0
+     */
+    public static Mappings load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Mappings(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Loads mappings from the content of a mapping file.
+     *
+     * @param content content of the ProGuard mapping file
+     * @return mappings
+     * @since 1.3.0
+     */
+    public static Mappings of(byte[] content) {
+        return new Mappings(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Returns obfuscated internal name of a class.
+     *
+     * @param internalName deobfuscated internal name of the class
+     * @return obfuscated internal name, null if the class is not mapped
+     * @since 1.3.0
+     */
+    public @Nullable String mapClass(String internalName) {
+        int index = findClass(bytes(internalName));
+        if (index == -1) return null;
+        return string(classes[index * 4 + 2], classes[index * 4 + 3]).replace('.', '/');
+    }
+
+    /**
+     * Returns obfuscated name of a method.
+     *
+     * @param owner deobfuscated internal name of the owner class
+     * @param name deobfuscated name of the method
+     * @param descriptor deobfuscated descriptor of the method
+     * @return obfuscated name, null if the method is not mapped
+     * @since 1.3.0
+     */
+    public @Nullable String mapMethod(String owner, String name, String descriptor) {
+        return mapMember(owner, name, arguments(descriptor));
+    }
+
+    /**
+     * Returns obfuscated name of a field.
+     *
+     * @param owner deobfuscated internal name of the owner class
+     * @param name deobfuscated name of the field
+     * @return obfuscated name, null if the field is not mapped
+     * @since 1.3.0
+     */
+    public @Nullable String mapField(String owner, String name) {
+        return mapMember(owner, name, null);
+    }
+
+    /**
+     * Replaces deobfuscated class names in a type or method descriptor.
+     *
+     * @param descriptor deobfuscated descriptor
+     * @return obfuscated descriptor
+     * @since 1.3.0
+     */
+    public String mapDescriptor(String descriptor) {
+        StringBuilder builder = new StringBuilder(descriptor.length());
+        int index = 0;
+        while (index < descriptor.length()) {
+            char next = descriptor.charAt(index++);
+            builder.append(next);
+            if (next != 'L') continue;
+            int end = descriptor.indexOf(';', index);
+            String internalName = descriptor.substring(index, end);
+            String mapped = mapClass(internalName);
+            builder.append(mapped != null ? mapped : internalName);
+            index = end;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Translates target written using deobfuscated names.
+     * <p>
+     * Members of mapped classes are looked up in the mappings of the class and then
+     * in the mappings of its superclasses and interfaces, members of classes that are
+     * not present in the mappings are kept unchanged.
+     *
+     * @param target deobfuscated target
+     * @return obfuscated target
+     * @throws RuntimeException if the class of the target is mapped, but its member is not
+     */
+    TargetSpec remap(TargetSpec target) {
+        String source = mapClass(target.source());
+        String descriptor = mapDescriptor(target.descriptor());
+        String name = source == null ? null : switch (target.action()) {
+            case CALL_METHOD -> mapInherited(target, source, arguments(target.descriptor()), descriptor);
+            case GET_FIELD, SET_FIELD, FOR_EACH -> mapInherited(target, source, null, descriptor);
+            default -> null;
+        };
+        return new TargetSpec(
+                source != null ? source : target.source(),
+                name != null ? name : target.name(),
+                descriptor,
+                target.isStatic(),
+                target.reflective(),
+                target.action(),
+                target.cached(),
+                target.cacheTtl(),
+                target.affinity(),
+                target.nestmate()
+        );
+    }
+
+    /**
+     * Returns obfuscated name of a target member declared by a mapped class or
+     * inherited from one of its superclasses or interfaces.
+     * <p>
+     * The mapping file does not list the supertypes, so the hierarchy is walked using
+     * the obfuscated classes.
+     * Supertypes that are not present in the mappings are checked to declare the
+     * member under its deobfuscated name.
+     *
+     * @param target deobfuscated target
+     * @param source obfuscated internal name of the owner class
+     * @param arguments arguments of the method in the mapping file format, null for fields
+     * @param descriptor obfuscated descriptor of the member
+     * @return obfuscated name
+     * @throws RuntimeException if the member can not be found
+     */
+    private String mapInherited(TargetSpec target, String source, byte @Nullable [] arguments, String descriptor) {
+        byte[] name = bytes(target.name());
+        String mapped = mapMember(findClass(bytes(target.source())), name, arguments);
+        if (mapped != null) return mapped;
+
+        Class<?> sourceClass;
+        try {
+            sourceClass = Class.forName(source.replace('/', '.'), false, Vitrum.class.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new RuntimeException("Mapped class '" + target.source() + "' (" + source + ") does not exist", exception);
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>(supertypes(sourceClass));
+        while (!queue.isEmpty()) {
+            Class<?> next = queue.poll();
+            if (!visited.add(next)) continue;
+            int index = findObfuscatedClass(bytes(Type.getInternalName(next)));
+            if (index != -1) {
+                mapped = mapMember(index, name, arguments);
+                if (mapped != null) return mapped;
+            } else if (declares(next, target.name(), arguments == null, descriptor)) {
+                return target.name();
+            }
+            queue.addAll(supertypes(next));
+        }
+        throw new RuntimeException("Member '" + target.name() + "' of mapped class '" + target.source() + "' is not present in the mappings");
+    }
+
+    /**
+     * Returns obfuscated name of a member.
+     *
+     * @param owner deobfuscated internal name of the owner class
+     * @param name deobfuscated name of the member
+     * @param arguments arguments of the method in the mapping file format, null for fields
+     * @return obfuscated name, null if the member is not mapped
+     */
+    private @Nullable String mapMember(String owner, String name, byte @Nullable [] arguments) {
+        return mapMember(findClass(bytes(owner)), bytes(name), arguments);
+    }
+
+    /**
+     * Returns obfuscated name of a member.
+     *
+     * @param ownerIndex index of the owner class, -1 if the class is not mapped
+     * @param nameBytes deobfuscated name of the member
+     * @param arguments arguments of the method in the mapping file format, null for fields
+     * @return obfuscated name, null if the member is not mapped
+     */
+    private @Nullable String mapMember(int ownerIndex, byte[] nameBytes, byte @Nullable [] arguments) {
+        if (ownerIndex == -1) return null;
+
+        int hash = memberHash(ownerIndex, nameBytes, arguments);
+        int mask = memberTable.length - 1;
+        for (int slot = hash & mask; memberTable[slot] != 0; slot = (slot + 1) & mask) {
+            int offset = (memberTable[slot] - 1) * 7;
+            if (members[offset] != ownerIndex) continue;
+            if (!equals(members[offset + 1], members[offset + 2], nameBytes)) continue;
+            if (arguments == null ? members[offset + 3] != NO_ARGUMENTS
+                    : members[offset + 3] == NO_ARGUMENTS || !equals(members[offset + 3], members[offset + 4], arguments))
+                continue;
+            return string(members[offset + 5], members[offset + 6]);
+        }
+        return null;
+    }
+
+    /**
+     * Returns index of a class with given deobfuscated name.
+     *
+     * @param internalName deobfuscated internal name
+     * @return index of the class or -1 if it is not mapped
+     */
+    private int findClass(byte[] internalName) {
+        int mask = classTable.length - 1;
+        for (int slot = hash(internalName, 0, internalName.length, 0) & mask; classTable[slot] != 0; slot = (slot + 1) & mask) {
+            int index = classTable[slot] - 1;
+            if (equals(classes[index * 4], classes[index * 4 + 1], internalName)) return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns index of a class with given obfuscated name.
+     *
+     * @param internalName obfuscated internal name
+     * @return index of the class or -1 if it is not mapped
+     */
+    private int findObfuscatedClass(byte[] internalName) {
+        int mask = obfuscatedTable.length - 1;
+        for (int slot = hash(internalName, 0, internalName.length, 0) & mask; obfuscatedTable[slot] != 0; slot = (slot + 1) & mask) {
+            int index = obfuscatedTable[slot] - 1;
+            if (equals(classes[index * 4 + 2], classes[index * 4 + 3], internalName)) return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns arguments of a method descriptor in the mapping file format.
+     *
+     * @param descriptor method descriptor
+     * @return arguments, for example {@code int,java.lang.String}
+     */
+    private static byte[] arguments(String descriptor) {
+        StringBuilder arguments = new StringBuilder();
+        for (Type argument : Type.getArgumentTypes(descriptor)) {
+            if (!arguments.isEmpty()) arguments.append(',');
+            arguments.append(argument.getClassName());
+        }
+        return bytes(arguments.toString());
+    }
+
+    /**
+     * Returns direct superclass and interfaces of a class.
+     *
+     * @param clazz class
+     * @return supertypes
+     */
+    private static List<Class<?>> supertypes(Class<?> clazz) {
+        List<Class<?>> supertypes = new ArrayList<>();
+        if (clazz.getSuperclass() != null) supertypes.add(clazz.getSuperclass());
+        Collections.addAll(supertypes, clazz.getInterfaces());
+        return supertypes;
+    }
+
+    /**
+     * Checks whether a class that is not present in the mappings declares a member.
+     *
+     * @param clazz class
+     * @param name name of the member
+     * @param field whether the member is a field
+     * @param descriptor descriptor of the member
+     * @return whether the class declares the member
+     */
+    private static boolean declares(Class<?> clazz, String name, boolean field, String descriptor) {
+        if (field) {
+            for (Field declared : clazz.getDeclaredFields())
+                if (declared.getName().equals(name)) return true;
+            return false;
+        }
+        for (Method declared : clazz.getDeclaredMethods())
+            if (declared.getName().equals(name) && Type.getMethodDescriptor(declared).equals(descriptor)) return true;
+        return false;
+    }
+
+    /**
+     * Indexes the mapping file.
+     */
+    private void parse() {
+        int limit = buffer.limit();
+        int position = 0;
+        int owner = -1;
+        while (position < limit) {
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') end++;
+            int lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+
+            if (lineEnd > position && buffer.get(position) != '#') {
+                if (isWhitespace(buffer.get(position))) {
+                    if (owner != -1) parseMember(owner, position, lineEnd);
+                } else {
+                    owner = parseClass(position, lineEnd);
+                }
+            }
+            position = end + 1;
+        }
+    }
+
+    /**
+     * Indexes a class line, for example {@code net.minecraft.Foo -> abc:}.
+     *
+     * @param start start of the line
+     * @param end end of the line
+     * @return index of the class, -1 if the line is malformed
+     */
+    private int parseClass(int start, int end) {
+        int arrow = indexOfArrow(start, end);
+        if (arrow == -1) return -1;
+        int obfEnd = end;
+        while (obfEnd > arrow + 4 && (buffer.get(obfEnd - 1) == ':' || isWhitespace(buffer.get(obfEnd - 1)))) obfEnd--;
+
+        if (classCount * 4 + 4 > classes.length) classes = Arrays.copyOf(classes, classes.length * 2);
+        int offset = classCount * 4;
+        classes[offset] = start;
+        classes[offset + 1] = arrow - start;
+        classes[offset + 2] = arrow + 4;
+        classes[offset + 3] = obfEnd - arrow - 4;
+        return classCount++;
+    }
+
+    /**
+     * Indexes a member line, for example {@code 1:5:void foo(int,java.lang.String) -> a}
+     * or {@code int bar -> b}.
+     *
+     * @param owner index of the owner class
+     * @param start start of the line
+     * @param end end of the line
+     */
+    private void parseMember(int owner, int start, int end) {
+        int arrow = indexOfArrow(start, end);
+        if (arrow == -1) return;
+
+        int position = start;
+        while (isWhitespace(buffer.get(position))) position++;
+        // line numbers of methods
+        while (position < arrow && (Character.isDigit(buffer.get(position)) || buffer.get(position) == ':')) position++;
+        // return type or field type
+        while (position < arrow && buffer.get(position) != ' ') position++;
+        int nameStart = ++position;
+        while (position < arrow && buffer.get(position) != '(' && buffer.get(position) != ' ') position++;
+        int nameEnd = position;
+
+        int argumentsStart = NO_ARGUMENTS, argumentsEnd = NO_ARGUMENTS;
+        if (position < arrow && buffer.get(position) == '(') {
+            argumentsStart = position + 1;
+            while (position < arrow && buffer.get(position) != ')') position++;
+            argumentsEnd = position;
+        }
+
+        // skips members inlined from other classes
+        for (int i = nameStart; i < nameEnd; i++)
+            if (buffer.get(i) == '.') return;
+
+        if (memberCount * 7 + 7 > members.length) members = Arrays.copyOf(members, members.length * 2);
+        int offset = memberCount * 7;
+        members[offset] = owner;
+        members[offset + 1] = nameStart;
+        members[offset + 2] = nameEnd - nameStart;
+        members[offset + 3] = argumentsStart;
+        members[offset + 4] = argumentsEnd - argumentsStart;
+        members[offset + 5] = arrow + 4;
+        members[offset + 6] = end - arrow - 4;
+        memberCount++;
+    }
+
+    /**
+     * Returns position of {@code " -> "} in a line.
+     *
+     * @param start start of the line
+     * @param end end of the line
+     * @return position of the arrow, -1 if it is missing
+     */
+    private int indexOfArrow(int start, int end) {
+        for (int i = start; i + 3 < end; i++) {
+            if (buffer.get(i) == ' ' && buffer.get(i + 1) == '-' && buffer.get(i + 2) == '>' && buffer.get(i + 3) == ' ')
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Builds open addressing hash table of entry indices (shifted by one).
+     *
+     * @param count number of entries
+     * @param hashFunction hash function of an entry
+     * @return hash table
+     */
+    private static int[] buildTable(int count, HashFunction hashFunction) {
+        int[] table = new int[Math.max(16, Integer.highestOneBit(Math.max(1, count) * 2) << 1)];
+        int mask = table.length - 1;
+        for (int index = 0; index < count; index++) {
+            int slot = hashFunction.hash(index) & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = index + 1;
+        }
+        return table;
+    }
+
+    private int classHash(int index) {
+        return hashBuffer(classes[index * 4], classes[index * 4 + 1], 0);
+    }
+
+    private int obfuscatedHash(int index) {
+        return hashBuffer(classes[index * 4 + 2], classes[index * 4 + 3], 0);
+    }
+
+    private int memberHash(int index) {
+        int offset = index * 7;
+        int hash = hashBuffer(members[offset + 1], members[offset + 2], members[offset]);
+        if (members[offset + 3] != NO_ARGUMENTS) hash = hashBuffer(members[offset + 3], members[offset + 4], hash * 31 + '(');
+        return mix(hash);
+    }
+
+    private static int memberHash(int owner, byte[] name, byte @Nullable [] arguments) {
+        int hash = hash(name, 0, name.length, owner);
+        if (arguments != null) hash = hash(arguments, 0, arguments.length, hash * 31 + '(');
+        return mix(hash);
+    }
+
+    /**
+     * Computes hash of the mapped bytes, dots are hashed as slashes so class names
+     * can be compared with internal names.
+     */
+    private int hashBuffer(int start, int length, int hash) {
+        for (int i = start; i < start + length; i++)
+            hash = hash * 31 + normalize(buffer.get(i));
+        return hash;
+    }
+
+    private static int hash(byte[] bytes, int start, int length, int hash) {
+        for (int i = start; i < start + length; i++)
+            hash = hash * 31 + normalize(bytes[i]);
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean equals(int start, int length, byte[] bytes) {
+        if (length != bytes.length) return false;
+        for (int i = 0; i < length; i++)
+            if (normalize(buffer.get(start + i)) != normalize(bytes[i])) return false;
+        return true;
+    }
+
+    private String string(int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte normalize(byte value) {
+        return value == '.' ? (byte) '/' : value;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t';
+    }
+
+    @FunctionalInterface
+    private interface HashFunction {
+        int hash(int index);
+    }
+
+}
@@ -0,0 +1,116 @@
+package me.pesekjak.vitrum;
+
+import java.util.List;
+
+/**
+ * Index-based access to the public fields and methods of a class, created
+ * using {@link Vitrum#memberAccess(String)}.
+ * <p>
+ * Members are resolved to indices once using {@link #indexOf(String)}, the
+ * accessing methods then dispatch to the members directly without reflection.
+ * Fields are indexed before methods. Fields are identified by their names, methods
+ * by their names followed by their descriptors, for example {@code plusOne(I)I},
+ * or only by their names if they are not overloaded and no field has the same name.
+ * <p>
+ * For static members the instance is ignored.
+ *
+ * @since 1.3.0
+ */
+public abstract class MemberAccess {
+
+    private final List<String> members;
+
+    protected MemberAccess(List<String> members) {
+        this.members = members;
+    }
+
+    /**
+     * Returns index of the member with given name.
+     *
+     * @param name name of the field, or name of the method optionally followed by its descriptor
+     * @return index of the member, or -1 if there is none
+     * @since 1.3.0
+     */
+    public abstract int indexOf(String name);
+
+    /**
+     * Returns value of a field, primitives are boxed.
+     *
+     * @param instance instance
+     * @param index index of the field
+     * @return value of the field
+     * @throws IllegalArgumentException if there is no field at given index
+     * @since 1.3.0
+     */
+    public abstract Object get(Object instance, int index);
+
+    /**
+     * Returns value of an {@code int}, {@code short}, {@code char} or {@code byte} field.
+     *
+     * @param instance instance
+     * @param index index of the field
+     * @return value of the field
+     * @throws IllegalArgumentException if there is no such field at given index
+     * @since 1.3.0
+     */
+    public abstract int getInt(Object instance, int index);
+
+    /**
+     * Changes value of a non-final field, primitives are unboxed.
+     *
+     * @param instance instance
+     * @param index index of the field
+     * @param value new value
+     * @throws IllegalArgumentException if there is no non-final field at given index
+     * @since 1.3.0
+     */
+    public abstract void set(Object instance, int index, Object value);
+
+    /**
+     * Changes value of a non-final {@code int}, {@code short}, {@code char} or {@code byte} field.
+     *
+     * @param instance instance
+     * @param index index of the field
+     * @param value new value
+     * @throws IllegalArgumentException if there is no such field at given index
+     * @since 1.3.0
+     */
+    public abstract void setInt(Object instance, int index, int value);
+
+    /**
+     * Invokes a method, arguments are converted to the parameter types and
+     * primitive results are boxed.
+     *
+     * @param instance instance
+     * @param index index of the method
+     * @param arguments arguments of the method
+     * @return result of the method, null if the method does not return any value
+     * @throws IllegalArgumentException if there is no method at given index
+     * @since 1.3.0
+     */
+    public abstract Object invoke(Object instance, int index, Object... arguments);
+
+    /**
+     * Returns names of the members, ordered by their indices.
+     * <p>
+     * Fields are identified by their names, methods by their names followed by their descriptors.
+     *
+     * @return names of the members
+     * @since 1.3.0
+     */
+    public List<String> members() {
+        return members;
+    }
+
+    /**
+     * Creates exception thrown by the generated code if there is no matching
+     * member at given index.
+     *
+     * @param index index of the member
+     * @return exception
+     */
+    static IllegalArgumentException noMember(int index) {
+        return new IllegalArgumentException("No matching member at index " + index);
+    }
+
+}
@@ -0,0 +1,429 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates implementations of {@link MemberAccess}.
+ */
+final class MemberAccessGenerator {
+
+    /**
+     * Maximum ratio of the perfect hash table size to the number of names, larger
+     * tables fall back to a lookup switch.
+     */
+    private static final int MAX_TABLE_RATIO = 8;
+
+    /**
+     * Maximum number of multipliers tried for each table size.
+     */
+    private static final int MAX_SEEDS = 1 << 16;
+
+    /**
+     * Increment of the tried multipliers, the fractional part of the golden ratio.
+     */
+    private static final int SEED_STEP = 0x9E3779B9;
+
+    private static final ClassValue<AtomicReference<MemberAccess>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected AtomicReference<MemberAccess> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private MemberAccessGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns member accessor of given class.
+     *
+     * @param internalName internal name of the class
+     * @return member accessor
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static MemberAccess get(String internalName) throws IllegalAccessException {
+        Class<?> owner;
+        try {
+            owner = Class.forName(internalName.replace('/', '.'), false, Vitrum.class.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalArgumentException("Class " + internalName + " does not exist", exception);
+        }
+        if (!Modifier.isPublic(owner.getModifiers()))
+            throw new IllegalArgumentException("Class " + internalName + " is not public");
+        AtomicReference<MemberAccess> reference = ACCESSORS.get(owner);
+        MemberAccess access = reference.get();
+        if (access == null) {
+            synchronized (reference) {
+                access = reference.get();
+                if (access == null) {
+                    access = generate(owner);
+                    reference.set(access);
+                }
+            }
+        }
+        return access;
+    }
+
+    /**
+     * Generates member accessor of given class.
+     *
+     * @param owner class
+     * @return member accessor
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    private static MemberAccess generate(Class<?> owner) throws IllegalAccessException {
+        List<Field> fields = Arrays.stream(owner.getFields())
+                .sorted(Comparator.comparing(Field::getName))
+                .toList();
+        List<Method> methods = Arrays.stream(owner.getMethods())
+                .filter(method -> method.getDeclaringClass() != Object.class)
+                .filter(method -> !method.isBridge() && !method.isSynthetic())
+                .sorted(Comparator.comparing(method -> method.getName() + Type.getMethodDescriptor(method)))
+                .toList();
+
+        List<String> members = new ArrayList<>();
+        for (Field field : fields) members.add(field.getName());
+        for (Method method : methods) members.add(method.getName() + Type.getMethodDescriptor(method));
+
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < members.size(); i++) indices.put(members.get(i), i);
+        // methods can be also found only by their names if it is not ambiguous
+        Map<String, Long> overloads = new HashMap<>();
+        for (Method method : methods) overloads.merge(method.getName(), 1L, Long::sum);
+        for (int i = 0; i < methods.size(); i++) {
+            String name = methods.get(i).getName();
+            if (overloads.get(name) == 1) indices.putIfAbsent(name, fields.size() + i);
+        }
+
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_MemberAccess");
+        String superName = Type.getInternalName(MemberAccess.class);
+        Type ownerType = Type.getType(owner);
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL, type.getInternalName(), null, superName, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitLdcInsn(new ConstantDynamic(
+                "_",
+                Type.getDescriptor(List.class),
+                new Handle(
+                        H_INVOKESTATIC,
+                        Type.getInternalName(MethodHandles.class),
+                        "classData",
+                        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;",
+                        false
+                )
+        ));
+        constructor.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "(Ljava/util/List;)V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        writeIndexOf(writer, indices);
+
+        Map<Integer, Field> all = new LinkedHashMap<>();
+        Map<Integer, Field> integers = new LinkedHashMap<>();
+        Map<Integer, Field> mutable = new LinkedHashMap<>();
+        Map<Integer, Field> mutableIntegers = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            boolean integer = isInteger(Type.getType(field.getType()));
+            boolean isFinal = Modifier.isFinal(field.getModifiers());
+            all.put(i, field);
+            if (integer) integers.put(i, field);
+            if (!isFinal) mutable.put(i, field);
+            if (integer && !isFinal) mutableIntegers.put(i, field);
+        }
+
+        writeSwitch(writer, "get", "(Ljava/lang/Object;I)Ljava/lang/Object;", all, (visitor, field) -> {
+            Type fieldType = Type.getType(field.getType());
+            loadField(visitor, ownerType, field);
+            if (ASMUtil.isPrimitive(fieldType) && !ASMUtil.isArray(fieldType))
+                ConverterVisitor.convertTopPrimitiveToObject(visitor, fieldType);
+            visitor.visitInsn(ARETURN);
+        });
+        writeSwitch(writer, "getInt", "(Ljava/lang/Object;I)I", integers, (visitor, field) -> {
+            loadField(visitor, ownerType, field);
+            visitor.visitInsn(IRETURN);
+        });
+        writeSwitch(writer, "set", "(Ljava/lang/Object;ILjava/lang/Object;)V", mutable, (visitor, field) -> {
+            boolean isStatic = Modifier.isStatic(field.getModifiers());
+            if (!isStatic) loadInstance(visitor, ownerType);
+            visitor.visitVarInsn(ALOAD, 3);
+            ConverterVisitor.convertTopObject(visitor, Type.getType(field.getType()));
+            visitor.visitFieldInsn(isStatic ? PUTSTATIC : PUTFIELD, ownerType.getInternalName(), field.getName(), Type.getDescriptor(field.getType()));
+            visitor.visitInsn(RETURN);
+        });
+        writeSwitch(writer, "setInt", "(Ljava/lang/Object;II)V", mutableIntegers, (visitor, field) -> {
+            boolean isStatic = Modifier.isStatic(field.getModifiers());
+            if (!isStatic) loadInstance(visitor, ownerType);
+            visitor.visitVarInsn(ILOAD, 3);
+            ConverterVisitor.convert(visitor, Type.INT_TYPE, Type.getType(field.getType()));
+            visitor.visitFieldInsn(isStatic ? PUTSTATIC : PUTFIELD, ownerType.getInternalName(), field.getName(), Type.getDescriptor(field.getType()));
+            visitor.visitInsn(RETURN);
+        });
+
+        Map<Integer, Method> invokable = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) invokable.put(fields.size() + i, methods.get(i));
+        writeSwitch(writer, "invoke", "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;", invokable, (visitor, method) -> {
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            if (!isStatic) loadInstance(visitor, ownerType);
+            Class<?>[] parameters = method.getParameterTypes();
+            for (int i = 0; i < parameters.length; i++) {
+                visitor.visitVarInsn(ALOAD, 3);
+                ASMUtil.pushInt(visitor, i);
+                visitor.visitInsn(AALOAD);
+                ConverterVisitor.convertTopObject(visitor, Type.getType(parameters[i]));
+            }
+            visitor.visitMethodInsn(
+                    isStatic ? INVOKESTATIC : owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+                    ownerType.getInternalName(),
+                    method.getName(),
+                    Type.getMethodDescriptor(method),
+                    owner.isInterface()
+            );
+            Type returnType = Type.getReturnType(method);
+            if (returnType.equals(Type.VOID_TYPE)) {
+                visitor.visitInsn(ACONST_NULL);
+            } else if (ASMUtil.isPrimitive(returnType) && !ASMUtil.isArray(returnType)) {
+                ConverterVisitor.convertTopPrimitiveToObject(visitor, returnType);
+            }
+            visitor.visitInsn(ARETURN);
+        });
+
+        writer.visitEnd();
+
+        Class<?> implementation = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClassWithClassData(writer.toByteArray(), List.copyOf(members), true)
+                .lookupClass();
+        try {
+            return (MemberAccess) implementation.getConstructor().newInstance();
+        } catch (InvocationTargetException | InstantiationException | NoSuchMethodException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Writes {@link MemberAccess#indexOf(String)}.
+     * <p>
+     * Names are matched using a perfect hash table, where each slot of a
+     * {@code tableswitch} holds at most one name, if there is no such table of
+     * a reasonable size, names are matched by their hash codes same as by the string switch.
+     * Slot of a name is the top bits of its hash code multiplied by the seed of the table.
+     *
+     * @param writer writer
+     * @param indices indices of the members mapped by their names
+     */
+    private static void writeIndexOf(ClassWriter writer, Map<String, Integer> indices) {
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, "indexOf", "(Ljava/lang/String;)I", null, null);
+        visitor.visitCode();
+        Label notFound = new Label();
+
+        PerfectHash table = perfectHash(indices.keySet());
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(String.class), "hashCode", "()I", false);
+        Map<Label, List<String>> branches = new LinkedHashMap<>();
+        if (table != null) {
+            Label[] labels = new Label[table.size()];
+            Arrays.fill(labels, notFound);
+            for (String name : indices.keySet()) {
+                Label label = new Label();
+                labels[table.slot(name.hashCode())] = label;
+                branches.put(label, List.of(name));
+            }
+            visitor.visitLdcInsn(table.seed());
+            visitor.visitInsn(IMUL);
+            ASMUtil.pushInt(visitor, 32 - table.bits());
+            visitor.visitInsn(IUSHR);
+            visitor.visitTableSwitchInsn(0, table.size() - 1, notFound, labels);
+        } else {
+            Map<Integer, List<String>> hashes = new TreeMap<>();
+            for (String name : indices.keySet())
+                hashes.computeIfAbsent(name.hashCode(), hash -> new ArrayList<>()).add(name);
+            int[] keys = hashes.keySet().stream().mapToInt(Integer::intValue).toArray();
+            Label[] labels = new Label[keys.length];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+                branches.put(labels[i], hashes.get(keys[i]));
+            }
+            visitor.visitLookupSwitchInsn(notFound, keys, labels);
+        }
+
+        for (Map.Entry<Label, List<String>> branch : branches.entrySet()) {
+            visitor.visitLabel(branch.getKey());
+            for (String name : branch.getValue()) {
+                Label next = new Label();
+                visitor.visitVarInsn(ALOAD, 1);
+                visitor.visitLdcInsn(name);
+                visitor.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(String.class), "equals", "(Ljava/lang/Object;)Z", false);
+                visitor.visitJumpInsn(IFEQ, next);
+                ASMUtil.pushInt(visitor, indices.get(name));
+                visitor.visitInsn(IRETURN);
+                visitor.visitLabel(next);
+            }
+            visitor.visitJumpInsn(GOTO, notFound);
+        }
+
+        visitor.visitLabel(notFound);
+        visitor.visitInsn(ICONST_M1);
+        visitor.visitInsn(IRETURN);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Finds perfect hash table of the smallest power of two size for given names.
+     * <p>
+     * For each size, multipliers are tried until the names map to distinct slots.
+     * A single multiplier succeeds with chance of about {@code e^(-n(n-1)/2m)} for
+     * {@code n} names and {@code m} slots, so sizes that would need more than
+     * {@link #MAX_SEEDS} multipliers are skipped.
+     *
+     * @param names names
+     * @return perfect hash table, or null if there is no such table of a reasonable size
+     */
+    static @Nullable PerfectHash perfectHash(Collection<String> names) {
+        if (names.isEmpty()) return null;
+        int[] hashes = names.stream().mapToInt(String::hashCode).toArray();
+        int bits = Integer.numberOfTrailingZeros(Integer.highestOneBit(Math.max(names.size() - 1, 1)) << 1);
+        for (; bits < 31 && 1 << bits <= names.size() * MAX_TABLE_RATIO; bits++) {
+            double collisions = (double) names.size() * (names.size() - 1) / (2 << bits);
+            if (collisions > Math.log(MAX_SEEDS)) continue;
+            BitSet used = new BitSet(1 << bits);
+            int seed = 1;
+            for (int i = 0; i < MAX_SEEDS; i++, seed += SEED_STEP) {
+                PerfectHash hash = new PerfectHash(bits, seed | 1);
+                used.clear();
+                boolean perfect = true;
+                for (int next : hashes) {
+                    int slot = hash.slot(next);
+                    if (used.get(slot)) {
+                        perfect = false;
+                        break;
+                    }
+                    used.set(slot);
+                }
+                if (perfect) return hash;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Perfect hash table of member names.
+     *
+     * @param bits number of bits of the slot, the table has {@code 2^bits} slots
+     * @param seed odd multiplier of the hash codes
+     */
+    record PerfectHash(int bits, int seed) {
+
+        /**
+         * @return number of slots
+         */
+        int size() {
+            return 1 << bits;
+        }
+
+        /**
+         * @param hash hash code of a name
+         * @return slot of the name
+         */
+        int slot(int hash) {
+            return (hash * seed) >>> (32 - bits);
+        }
+
+    }
+
+    /**
+     * Writes method dispatching to the members using a {@code tableswitch}, indices
+     * without a member throw {@link IllegalArgumentException}.
+     *
+     * @param writer writer
+     * @param name name of the method
+     * @param descriptor descriptor of the method, index is always its second parameter
+     * @param members members mapped by their indices
+     * @param branch writer of the branch of a member
+     * @param <M> member type
+     */
+    private static <M> void writeSwitch(ClassWriter writer, String name, String descriptor, Map<Integer, M> members, Branch<M> branch) {
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | (descriptor.contains("[") ? ACC_VARARGS : 0), name, descriptor, null, null);
+        visitor.visitCode();
+        Label noMember = new Label();
+
+        if (!members.isEmpty()) {
+            int min = Collections.min(members.keySet());
+            int max = Collections.max(members.keySet());
+            Label[] labels = new Label[max - min + 1];
+            Arrays.fill(labels, noMember);
+            for (int index : members.keySet()) labels[index - min] = new Label();
+
+            visitor.visitVarInsn(ILOAD, 2);
+            visitor.visitTableSwitchInsn(min, max, noMember, labels);
+            for (Map.Entry<Integer, M> entry : members.entrySet()) {
+                visitor.visitLabel(labels[entry.getKey() - min]);
+                branch.write(visitor, entry.getValue());
+            }
+        }
+
+        visitor.visitLabel(noMember);
+        visitor.visitVarInsn(ILOAD, 2);
+        visitor.visitMethodInsn(
+                INVOKESTATIC,
+                Type.getInternalName(MemberAccess.class),
+                "noMember",
+                Type.getMethodDescriptor(Type.getType(IllegalArgumentException.class), Type.INT_TYPE),
+                false
+        );
+        visitor.visitInsn(ATHROW);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    private static void loadInstance(MethodVisitor visitor, Type owner) {
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitTypeInsn(CHECKCAST, owner.getInternalName());
+    }
+
+    private static void loadField(MethodVisitor visitor, Type owner, Field field) {
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        if (!isStatic) loadInstance(visitor, owner);
+        visitor.visitFieldInsn(isStatic ? GETSTATIC : GETFIELD, owner.getInternalName(), field.getName(), Type.getDescriptor(field.getType()));
+    }
+
+    private static boolean isInteger(Type type) {
+        return switch (type.getSort()) {
+            case Type.INT, Type.SHORT, Type.CHAR, Type.BYTE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Writes the branch of a single member.
+     *
+     * @param <M> member type
+     */
+    private interface Branch<M> {
+        void write(MethodVisitor visitor, M member);
+    }
+
+}
@@ -0,0 +1,178 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates windows that implement multiple handlers at once.
+ * <p>
+ * Each window method receives index of the handler as its first parameter and
+ * dispatches to the target of the handler using a single {@code tableswitch},
+ * handlers with identical targets share the same branch.
+ */
+final class MultiWindowGenerator {
+
+    /**
+     * Arguments of multi-handler window methods, the handler index occupies the first slot.
+     */
+    private static final TargetArguments ARGUMENTS = new TargetArguments.Array(2, 3);
+
+    /**
+     * Generated multi-handler window classes, mapped by their interface and handler table.
+     */
+    private static final ClassValue<Map<Handlers, Class<?>>> MULTI_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<Handlers, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private MultiWindowGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates new multi-handler window.
+     *
+     * @param clazz interface class
+     * @param handlers handler table
+     * @return window implementation
+     * @param <T> window type
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static <T> T create(Class<T> clazz, Handlers handlers) throws IllegalAccessException {
+        if (!clazz.isInterface()) throw new IllegalArgumentException();
+
+        Map<Handlers, Class<?>> classes = MULTI_CLASSES.get(clazz);
+        Class<?> implementation = classes.get(handlers);
+        if (implementation == null) {
+            synchronized (classes) {
+                implementation = classes.get(handlers);
+                if (implementation == null) {
+                    implementation = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                            .defineHiddenClass(generate(clazz, handlers), true)
+                            .lookupClass();
+                    classes.put(handlers, implementation);
+                }
+            }
+        }
+        return Vitrum.instantiate(clazz, implementation);
+    }
+
+    /**
+     * Generates multi-handler window class.
+     *
+     * @param clazz interface class
+     * @param handlers handler table
+     * @return bytes of the window implementation class
+     */
+    private static byte[] generate(Class<?> clazz, Handlers handlers) {
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Multi");
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                type.getInternalName(),
+                null,
+                Type.getType(Object.class).getInternalName(),
+                new String[] {Type.getType(clazz).getInternalName(), Type.getInternalName(Window.class)}
+        );
+        Vitrum.writeConstructor(writer);
+        String[] identifiers = new String[handlers.size()];
+        for (int i = 0; i < identifiers.length; i++)
+            identifiers[i] = handlers.get(i);
+        for (Method method : clazz.getMethods()) {
+            if (!Vitrum.isWindowMethod(method)) continue;
+            TargetSpec[] targets = new TargetSpec[handlers.size()];
+            for (int i = 0; i < targets.length; i++)
+                targets[i] = Vitrum.getTarget(method, identifiers[i]);
+            writeMethod(writer, method, targets, handlers);
+        }
+        SupportedNames.writeSupports(writer, clazz, identifiers);
+        writer.visitEnd();
+
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes multi-handler window method.
+     *
+     * @param writer writer
+     * @param method method to implement
+     * @param targets targets of the method, indexed the same as handlers, null if the handler does not implement it
+     * @param handlers handler table
+     */
+    private static void writeMethod(ClassWriter writer, Method method, TargetSpec[] targets, Handlers handlers) {
+        Class<?>[] params = method.getParameterTypes();
+        if (params.length != 3 || params[0] != int.class || params[1] != Object.class || params[2] != Object[].class)
+            throw new RuntimeException("Illegal method " + method.getName() + ", does not follow the 'int, Object, Object[]' arguments");
+
+        Type callingMethod = Type.getType(method);
+        MethodVisitor visitor = writer.visitMethod(
+                ACC_PUBLIC,
+                method.getName(),
+                callingMethod.getDescriptor(),
+                null,
+                null
+        );
+        visitor.visitCode();
+
+        // handlers with equal targets jump to the same branch
+        Map<TargetSpec, Label> branches = new LinkedHashMap<>();
+        Label unsupported = null;
+        Label[] labels = new Label[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null) {
+                if (unsupported == null) unsupported = new Label();
+                labels[i] = unsupported;
+            } else {
+                labels[i] = branches.computeIfAbsent(targets[i], target -> new Label());
+            }
+        }
+        Label invalid = new Label();
+
+        visitor.visitVarInsn(ILOAD, 1);
+        visitor.visitTableSwitchInsn(0, targets.length - 1, invalid, labels);
+
+        Set<Label> written = new HashSet<>();
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null || !written.add(labels[i])) continue;
+            visitor.visitLabel(labels[i]);
+            Vitrum.writeTarget(visitor, targets[i], callingMethod.getReturnType(), ARGUMENTS, method.getName(), handlers.get(i));
+        }
+        if (unsupported != null) {
+            visitor.visitLabel(unsupported);
+            Vitrum.writeUnsupported(visitor, method, callingMethod.getReturnType());
+        }
+
+        visitor.visitLabel(invalid);
+        visitor.visitTypeInsn(NEW, Type.getInternalName(IndexOutOfBoundsException.class));
+        visitor.visitInsn(DUP);
+        visitor.visitVarInsn(ILOAD, 1);
+        visitor.visitMethodInsn(
+                INVOKESPECIAL,
+                Type.getInternalName(IndexOutOfBoundsException.class),
+                "<init>",
+                "(I)V",
+                false
+        );
+        visitor.visitInsn(ATHROW);
+
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+}
@@ -0,0 +1,232 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates accessors of {@link Target#nestmate()} targets.
+ * <p>
+ * The accessor is a hidden class defined in the nest of the target source class, with
+ * a single static method performing the target using plain bytecode instructions,
+ * which can access private members of the nest. Generated classes call it using
+ * {@code invokedynamic} bootstrapped by {@link #bootstrap(MethodHandles.Lookup, String, MethodType, String, String, String, int, String)},
+ * which links the call site to the accessor on the first call.
+ * <p>
+ * Hidden classes and possibly inaccessible source classes can not be referenced by the
+ * calling class, so all reference types of the call are erased to {@link Object}
+ * and the accessor casts them.
+ */
+final class NestmateGenerator {
+
+    private static final String ACCESS = "access";
+
+    /**
+     * Accessors of already linked targets, mapped by their source class.
+     */
+    private static final ClassValue<Map<TargetSpec, MethodHandle>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<TargetSpec, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final Handle BOOTSTRAP = new Handle(
+            H_INVOKESTATIC,
+            Type.getInternalName(NestmateGenerator.class),
+            "bootstrap",
+            Type.getMethodDescriptor(
+                    Type.getType(CallSite.class),
+                    Type.getType(MethodHandles.Lookup.class),
+                    Type.getType(String.class),
+                    Type.getType(MethodType.class),
+                    Type.getType(String.class),
+                    Type.getType(String.class),
+                    Type.getType(String.class),
+                    Type.INT_TYPE,
+                    Type.getType(String.class)
+            ),
+            false
+    );
+
+    private NestmateGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns type of the accessor method of a target, which is also the type
+     * of its call site.
+     *
+     * @param target target
+     * @return erased method type
+     */
+    static Type getCallType(TargetSpec target) {
+        Type[] arguments = Vitrum.getArgumentTypes(target);
+        boolean hasInstance = Vitrum.hasInstance(target);
+        Type[] params = new Type[arguments.length + (hasInstance ? 1 : 0)];
+        if (hasInstance) params[0] = Type.getType(Object.class);
+        for (int i = 0; i < arguments.length; i++)
+            params[i + (hasInstance ? 1 : 0)] = erase(arguments[i]);
+        return Type.getMethodType(erase(Vitrum.getOutputType(target)), params);
+    }
+
+    /**
+     * Writes call of the target accessor, leaving its output of the return type of
+     * {@link #getCallType(TargetSpec)} on the stack.
+     *
+     * @param target target
+     * @param visitor visitor
+     * @param arguments loader of the instance and arguments
+     */
+    static void writeCall(TargetSpec target, MethodVisitor visitor, TargetArguments arguments) {
+        if (target.action() == Target.Action.FOR_EACH) {
+            // only the field is read by the accessor, its value is iterated by the caller
+            writeCall(new TargetSpec(target.source(), target.name(), target.descriptor(), target.isStatic(), false, Target.Action.GET_FIELD), visitor, arguments);
+            ForEach.writeIteration(target, visitor, arguments);
+            return;
+        }
+        Type callType = getCallType(target);
+        Type[] params = callType.getArgumentTypes();
+        int offset = Vitrum.hasInstance(target) ? 1 : 0;
+        if (offset == 1) arguments.loadInstance(visitor, Type.getType(Object.class));
+        for (int i = offset; i < params.length; i++)
+            arguments.loadArgument(visitor, i - offset, params[i]);
+        visitor.visitInvokeDynamicInsn(
+                ACCESS,
+                callType.getDescriptor(),
+                BOOTSTRAP,
+                target.source(),
+                target.name(),
+                target.descriptor(),
+                target.isStatic() ? 1 : 0,
+                target.action().name()
+        );
+    }
+
+    /**
+     * Bootstrap method of the call sites of nestmate targets.
+     *
+     * @param lookup lookup of the calling class
+     * @param name name of the call site
+     * @param type type of the call site
+     * @param source internal name of the owner class
+     * @param member name of the targeted class member
+     * @param descriptor descriptor of the targeted class member
+     * @param isStatic 1 if the targeted class member is static
+     * @param action name of the target action
+     * @return call site linked to the accessor
+     * @throws ReflectiveOperationException if the source class can not be loaded or
+     * the accessor can not be defined
+     */
+    static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String source, String member, String descriptor, int isStatic, String action) throws ReflectiveOperationException {
+        Class<?> sourceClass = Class.forName(source.replace('/', '.'), false, lookup.lookupClass().getClassLoader());
+        TargetSpec target = new TargetSpec(source, member, descriptor, isStatic == 1, false, Target.Action.valueOf(action));
+        Map<TargetSpec, MethodHandle> accessors = ACCESSORS.get(sourceClass);
+        MethodHandle accessor = accessors.get(target);
+        if (accessor == null) {
+            synchronized (accessors) {
+                accessor = accessors.get(target);
+                if (accessor == null) accessors.put(target, accessor = generate(sourceClass, target, type));
+            }
+        }
+        return new ConstantCallSite(accessor);
+    }
+
+    /**
+     * Defines accessor of a target in the nest of its source class.
+     *
+     * @param sourceClass source class of the target
+     * @param target target
+     * @param type type of the accessor method
+     * @return handle of the accessor method
+     * @throws ReflectiveOperationException if the accessor can not be defined
+     */
+    private static MethodHandle generate(Class<?> sourceClass, TargetSpec target, MethodType type) throws ReflectiveOperationException {
+        Type callType = Type.getMethodType(type.toMethodDescriptorString());
+        Type accessorType = ASMUtil.getType(sourceClass.getName() + "$Vitrum_Nestmate");
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                accessorType.getInternalName(),
+                null,
+                Type.getInternalName(Object.class),
+                null
+        );
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, ACCESS, callType.getDescriptor(), null, null);
+        visitor.visitCode();
+        Vitrum.writeNonReflectiveCode(target, visitor, new Arguments(callType.getArgumentTypes(), Vitrum.hasInstance(target)));
+        // references are widened to Object implicitly
+        visitor.visitInsn(callType.getReturnType().getOpcode(IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+        writer.visitEnd();
+
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        MethodHandles.Lookup nest = MethodHandles.privateLookupIn(sourceClass, MethodHandles.lookup())
+                .defineHiddenClass(bytes, true, MethodHandles.Lookup.ClassOption.NESTMATE);
+        return nest.findStatic(nest.lookupClass(), ACCESS, type);
+    }
+
+    /**
+     * @param type type
+     * @return primitive type, or {@link Object} for reference types
+     */
+    private static Type erase(Type type) {
+        return (ASMUtil.isPrimitive(type) && !ASMUtil.isArray(type)) || type.equals(Type.VOID_TYPE)
+                ? type
+                : Type.getType(Object.class);
+    }
+
+    /**
+     * Parameters of the accessor method, cast to the types of the target.
+     */
+    private static final class Arguments implements TargetArguments {
+
+        private final Type[] params;
+        private final int[] slots;
+        private final int offset;
+
+        Arguments(Type[] params, boolean hasInstance) {
+            this.params = params;
+            this.offset = hasInstance ? 1 : 0;
+            slots = new int[params.length];
+            int slot = 0;
+            for (int i = 0; i < params.length; i++) {
+                slots[i] = slot;
+                slot += params[i].getSize();
+            }
+        }
+
+        @Override
+        public void loadInstance(MethodVisitor visitor, Type source) {
+            load(visitor, 0, source);
+        }
+
+        @Override
+        public void loadArgument(MethodVisitor visitor, int index, Type type) {
+            load(visitor, index + offset, type);
+        }
+
+        private void load(MethodVisitor visitor, int param, Type type) {
+            visitor.visitVarInsn(params[param].getOpcode(ILOAD), slots[param]);
+            ConverterVisitor.convert(visitor, params[param], type);
+        }
+
+    }
+
+}
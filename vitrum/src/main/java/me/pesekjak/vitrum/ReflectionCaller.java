@@ -79,6 +79,75 @@ class ReflectionCaller {
         field.set(instance, value);
     }
 
+    /**
+     * Checks whether an object is instance of a class.
+     *
+     * @param source internal name of the class
+     * @param instance object to check
+     * @return whether the object is instance of the class
+     */
+    static Object isInstance(String source, Object instance) throws Exception {
+        return Class.forName(source.replace('/', '.')).isInstance(instance);
+    }
+
+    /**
+     * Casts an object to a class.
+     *
+     * @param source internal name of the class
+     * @param instance object to cast
+     * @return the object
+     */
+    static Object cast(String source, Object instance) throws Exception {
+        return Class.forName(source.replace('/', '.')).cast(instance);
+    }
+
+    /**
+     * Creates new array.
+     *
+     * @param source internal name of the component class, used if the descriptor is empty
+     * @param descriptor descriptor of the component type
+     * @param length length of the array
+     * @return new array
+     */
+    static Object newArray(String source, String descriptor, int length) throws Exception {
+        Class<?> component = descriptor.isEmpty()
+                ? Class.forName(source.replace('/', '.'))
+                : descriptorToType(descriptor);
+        return java.lang.reflect.Array.newInstance(component, length);
+    }
+
+    /**
+     * Returns length of an array.
+     *
+     * @param array array
+     * @return length of the array
+     */
+    static Object arrayLength(Object array) {
+        return java.lang.reflect.Array.getLength(array);
+    }
+
+    /**
+     * Returns element of an array.
+     *
+     * @param array array
+     * @param index index of the element
+     * @return element
+     */
+    static @Nullable Object arrayGet(Object array, int index) {
+        return java.lang.reflect.Array.get(array, index);
+    }
+
+    /**
+     * Changes element of an array.
+     *
+     * @param array array
+     * @param index index of the element
+     * @param value new value
+     */
+    static void arraySet(Object array, int index, Object value) {
+        java.lang.reflect.Array.set(array, index, value);
+    }
+
     /**
      * Converts method descriptor to list of parameter classes.
      *
@@ -0,0 +1,199 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates implementations of hidden types that forward calls to a callback interface.
+ */
+final class ReverseWindowGenerator {
+
+    private static final String DELEGATE = "delegate";
+
+    /**
+     * Generated reverse window classes, mapped by their callback interface and handler identifier.
+     */
+    private static final ClassValue<Map<String, Class<?>>> REVERSE_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<String, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ReverseWindowGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates new reverse window.
+     *
+     * @param callbacks callback interface
+     * @param handler handler identifier
+     * @param delegate implementation of the callback interface
+     * @return instance of the hidden type
+     * @param <T> callback interface type
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static <T> Object create(Class<T> callbacks, String handler, T delegate) throws IllegalAccessException {
+        if (!callbacks.isInterface()) throw new IllegalArgumentException();
+
+        Map<String, Class<?>> classes = REVERSE_CLASSES.get(callbacks);
+        Class<?> implementation = classes.get(handler);
+        if (implementation == null) {
+            synchronized (classes) {
+                implementation = classes.get(handler);
+                if (implementation == null) classes.put(handler, implementation = generate(callbacks, handler));
+            }
+        }
+
+        try {
+            return implementation.getConstructor(callbacks).newInstance(callbacks.cast(delegate));
+        } catch (InvocationTargetException | InstantiationException | NoSuchMethodException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Generates and defines reverse window class.
+     *
+     * @param callbacks callback interface
+     * @param handler handler identifier
+     * @return reverse window class
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    private static Class<?> generate(Class<?> callbacks, String handler) throws IllegalAccessException {
+        String source = null;
+        for (Method method : callbacks.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) continue;
+            TargetSpec target = Vitrum.getTarget(method, handler);
+            if (target == null) continue;
+            if (source != null && !source.equals(target.source()))
+                throw new RuntimeException("Reverse window " + callbacks.getName() + " implements multiple types for " + handler + " handler");
+            source = target.source();
+        }
+        if (source == null)
+            throw new RuntimeException("Reverse window " + callbacks.getName() + " has no targets for " + handler + " handler");
+
+        Class<?> hidden;
+        try {
+            hidden = Class.forName(source.replace('/', '.'), false, Vitrum.class.getClassLoader());
+        } catch (ClassNotFoundException exception) {
+            throw new RuntimeException(exception);
+        }
+        String superName = hidden.isInterface() ? Type.getInternalName(Object.class) : source;
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Reverse");
+        Type callbacksType = Type.getType(callbacks);
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                type.getInternalName(),
+                null,
+                superName,
+                hidden.isInterface() ? new String[] {source} : null
+        );
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, DELEGATE, callbacksType.getDescriptor(), null, null).visitEnd();
+
+        MethodVisitor constructor = writer.visitMethod(
+                ACC_PUBLIC,
+                "<init>",
+                Type.getMethodDescriptor(Type.VOID_TYPE, callbacksType),
+                null,
+                null
+        );
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, type.getInternalName(), DELEGATE, callbacksType.getDescriptor());
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        for (Method method : callbacks.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) continue;
+            TargetSpec target = Vitrum.getTarget(method, handler);
+            if (target == null) continue;
+            writeMethod(writer, type, callbacksType, method, target);
+        }
+        writer.visitEnd();
+
+        return MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClass(writer.toByteArray(), true)
+                .lookupClass();
+    }
+
+    /**
+     * Implements method of the hidden type that forwards the call to the callback.
+     *
+     * @param writer writer
+     * @param type type of the reverse window
+     * @param callbacksType type of the callback interface
+     * @param method callback method
+     * @param target hidden method implemented by the callback
+     */
+    private static void writeMethod(ClassWriter writer, Type type, Type callbacksType, Method method, TargetSpec target) {
+        if (target.action() != Target.Action.CALL_METHOD || target.isStatic() || target.reflective())
+            throw new RuntimeException("Callback " + method.getName() + " needs to target a non-static method");
+
+        Type hiddenMethod = Type.getMethodType(target.descriptor());
+        Type callbackMethod = Type.getType(method);
+        Type[] hiddenParams = hiddenMethod.getArgumentTypes();
+        Type[] callbackParams = callbackMethod.getArgumentTypes();
+
+        // callback can receive the hidden instance as the first argument
+        int offset = callbackParams.length - hiddenParams.length;
+        if (offset != 0 && offset != 1)
+            throw new RuntimeException("Callback " + method.getName() + " has " + callbackParams.length + " parameters, but its target has " + hiddenParams.length);
+
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, target.name(), target.descriptor(), null, null);
+        visitor.visitCode();
+        visitor.visitVarInsn(ALOAD, 0);
+        visitor.visitFieldInsn(GETFIELD, type.getInternalName(), DELEGATE, callbacksType.getDescriptor());
+        if (offset == 1) {
+            visitor.visitVarInsn(ALOAD, 0);
+            ConverterVisitor.convert(visitor, Type.getObjectType(target.source()), callbackParams[0]);
+        }
+
+        int slot = 1;
+        for (int i = 0; i < hiddenParams.length; i++) {
+            visitor.visitVarInsn(hiddenParams[i].getOpcode(ILOAD), slot);
+            ConverterVisitor.convert(visitor, hiddenParams[i], callbackParams[i + offset]);
+            slot += hiddenParams[i].getSize();
+        }
+        visitor.visitMethodInsn(
+                INVOKEINTERFACE,
+                callbacksType.getInternalName(),
+                method.getName(),
+                callbackMethod.getDescriptor(),
+                true
+        );
+
+        Type hiddenReturn = hiddenMethod.getReturnType();
+        Type callbackReturn = callbackMethod.getReturnType();
+        if (hiddenReturn.equals(Type.VOID_TYPE)) {
+            if (callbackReturn.getSize() != 0) visitor.visitInsn(callbackReturn.getSize() == 2 ? POP2 : POP);
+        } else if (callbackReturn.equals(Type.VOID_TYPE)) {
+            throw new RuntimeException("Callback " + method.getName() + " needs to return a value");
+        } else {
+            ConverterVisitor.convert(visitor, callbackReturn, hiddenReturn);
+        }
+        visitor.visitInsn(hiddenReturn.getOpcode(IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+}
@@ -0,0 +1,98 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Names of the window methods supported by generated classes, used by their
+ * {@link Window#supports(String)}.
+ * <p>
+ * The names are resolved once per generated class, using a dynamic constant
+ * bootstrapped by {@link #bootstrap(MethodHandles.Lookup, String, Class, Class, String...)},
+ * so {@code supports} only looks the name up in a constant set and its size does not
+ * depend on the number of window methods.
+ */
+final class SupportedNames {
+
+    private static final Handle BOOTSTRAP = new Handle(
+            H_INVOKESTATIC,
+            Type.getInternalName(SupportedNames.class),
+            "bootstrap",
+            Type.getMethodDescriptor(
+                    Type.getType(Set.class),
+                    Type.getType(MethodHandles.Lookup.class),
+                    Type.getType(String.class),
+                    Type.getType(Class.class),
+                    Type.getType(Class.class),
+                    Type.getType(String[].class)
+            ),
+            false
+    );
+
+    private SupportedNames() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Implements {@link Window#supports(String)} to the window writer.
+     * <p>
+     * A method is supported if it has target for at least one of the handlers.
+     *
+     * @param writer writer
+     * @param clazz interface class
+     * @param handlers handler identifiers
+     */
+    static void writeSupports(ClassWriter writer, Class<?> clazz, String... handlers) {
+        MethodVisitor visitor = writer.visitMethod(
+                ACC_PUBLIC,
+                "supports",
+                Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(String.class)),
+                null,
+                null
+        );
+        visitor.visitCode();
+        Object[] arguments = new Object[handlers.length + 1];
+        arguments[0] = Type.getType(clazz);
+        System.arraycopy(handlers, 0, arguments, 1, handlers.length);
+        visitor.visitLdcInsn(new ConstantDynamic("supported", Type.getDescriptor(Set.class), BOOTSTRAP, arguments));
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Set.class), "contains", "(Ljava/lang/Object;)Z", true);
+        visitor.visitInsn(IRETURN);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Bootstrap method of the dynamic constants holding the supported names.
+     *
+     * @param lookup lookup of the generated class
+     * @param name name of the constant
+     * @param type type of the constant
+     * @param clazz interface class
+     * @param handlers handler identifiers
+     * @return names of the window methods that have target for at least one of the handlers
+     */
+    static Set<String> bootstrap(MethodHandles.Lookup lookup, String name, Class<?> type, Class<?> clazz, String... handlers) {
+        Set<String> supported = new HashSet<>();
+        for (Method method : clazz.getMethods()) {
+            if (!Vitrum.isWindowMethod(method)) continue;
+            for (String handler : handlers) {
+                if (Vitrum.getTarget(method, handler) == null) continue;
+                supported.add(method.getName());
+                break;
+            }
+        }
+        return Set.copyOf(supported);
+    }
+
+}
@@ -83,6 +83,60 @@ public @interface Target {
      */
     Action action() default Action.CALL_METHOD;
 
+    /**
+     * Whether the window method caches the result of the target per instance.
+     * <p>
+     * Useful for expensive targets that are pure for a given instance. Only non-static
+     * {@link Action#CALL_METHOD} targets without parameters and non-static
+     * {@link Action#GET_FIELD} targets can be cached.
+     * <p>
+     * Instances are held weakly, results can be dropped using {@link Window#invalidate(Object)}.
+     * Results referencing their instance prevent it from being collected.
+     *
+     * @return whether to cache the results
+     * @since 1.3.0
+     */
+    boolean cached() default false;
+
+    /**
+     * Time in milliseconds after which the cached result expires.
+     * <p>
+     * Used only if {@link #cached()} is set to true, 0 means the results never expire.
+     *
+     * @return time to live of the cached results
+     * @since 1.3.0
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * Name of the affinity the target has to be called on, registered using
+     * {@link Vitrum#useAffinity(String, Affinity)}.
+     * <p>
+     * Window methods of targets with affinity return {@link java.util.concurrent.CompletableFuture}.
+     * Calls on the affine thread are performed directly and their exceptions are thrown,
+     * calls from other threads are queued and performed by the next drain of the affinity,
+     * their exceptions complete the returned future.
+     *
+     * @return name of the affinity, empty if the target can be called on any thread
+     * @since 1.3.0
+     */
+    String affinity() default "";
+
+    /**
+     * Whether the handler should access the class member from a hidden class defined
+     * in the nest of the source class.
+     * <p>
+     * Like {@link #reflective()}, this allows to access private class members, but the
+     * members are accessed by regular bytecode instructions, so the calls are as fast as
+     * the casual way. The hidden class is defined on the first call of the window method.
+     * <p>
+     * Source class has to be open to Vitrum. If set to true, {@link #reflective()} is ignored.
+     *
+     * @return whether to access the class member as a nestmate of the source class
+     * @since 1.3.0
+     */
+    boolean nestmate() default false;
+
     /**
      * Represents what action should happen for the Target.
      *
@@ -138,7 +192,106 @@ public @interface Target {
          * and then no instance is expected when calling the window interface method,
          * otherwise it is expected to be not null.
          */
-        SET_FIELD
+        SET_FIELD,
+
+        /**
+         * Checks whether the instance is an instance of specified class and returns
+         * the result as boolean.
+         * <p>
+         * Arguments given to the window interface method will be ignored.
+         * <p>
+         * Name and descriptor are not required and can be left empty, the target
+         * can not be static.
+         *
+         * @since 1.3.0
+         */
+        INSTANCE_OF,
+
+        /**
+         * Casts the instance to specified class and returns it.
+         * <p>
+         * Arguments given to the window interface method will be ignored.
+         * <p>
+         * Name and descriptor are not required and can be left empty, the target
+         * can not be static.
+         *
+         * @since 1.3.0
+         */
+        CHECK_CAST,
+
+        /**
+         * Creates new array of specified class and returns it.
+         * <p>
+         * First argument given to the window interface method will be used as the
+         * length of the array, instance is ignored.
+         * <p>
+         * Name is not required and can be left empty. If the descriptor is set,
+         * it is used as the component type of the array instead of the specified class,
+         * for example {@code I} for arrays of ints. The target can not be static.
+         *
+         * @since 1.3.0
+         */
+        NEW_ARRAY,
+
+        /**
+         * Returns length of the instance, which is an array of specified class.
+         * <p>
+         * Arguments given to the window interface method will be ignored.
+         * <p>
+         * Component type of the array is resolved the same way as for {@link #NEW_ARRAY}.
+         *
+         * @since 1.3.0
+         */
+        ARRAY_LENGTH,
+
+        /**
+         * Returns element of the instance, which is an array of specified class.
+         * <p>
+         * First argument given to the window interface method will be used as the
+         * index of the element.
+         * <p>
+         * Component type of the array is resolved the same way as for {@link #NEW_ARRAY}.
+         *
+         * @since 1.3.0
+         */
+        ARRAY_GET,
+
+        /**
+         * Changes element of the instance, which is an array of specified class.
+         * <p>
+         * First argument given to the window interface method will be used as the
+         * index of the element and second as the new value.
+         * <p>
+         * Component type of the array is resolved the same way as for {@link #NEW_ARRAY}.
+         *
+         * @since 1.3.0
+         */
+        ARRAY_SET,
+
+        /**
+         * Iterates value of a field of specified class with given name and descriptor,
+         * without allocating per element.
+         * <p>
+         * First argument given to the window interface method will be used as the consumer
+         * of the elements. Arrays of {@code int} and smaller primitives use
+         * {@link java.util.function.IntConsumer}, arrays of {@code long} use
+         * {@link java.util.function.LongConsumer}, arrays of {@code float} and {@code double}
+         * use {@link java.util.function.DoubleConsumer} and other arrays use
+         * {@link java.util.function.Consumer}.
+         * <p>
+         * Other fields are iterated using the public {@code forEach} method of the field type,
+         * if there are more of them, the one with the most primitive parameters of its
+         * consumer is used. For example primitive collections are iterated with their
+         * primitive consumer instead of boxing {@link Iterable#forEach(java.util.function.Consumer)}
+         * and maps using {@link java.util.Map#forEach(java.util.function.BiConsumer)}.
+         * <p>
+         * If the field is static, {@link #isStatic()} has to be set to true,
+         * and then no instance is expected when calling the window interface method,
+         * otherwise it is expected to be not null.
+         *
+         * @since 1.3.0
+         */
+        FOR_EACH
 
     }
 
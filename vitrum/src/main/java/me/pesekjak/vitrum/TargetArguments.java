@@ -0,0 +1,89 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Loads the instance and arguments of a target onto the stack
+ * for the generated code.
+ */
+interface TargetArguments {
+
+    /**
+     * Arguments of window methods, instance is the first parameter and arguments
+     * are elements of the second parameter array.
+     */
+    TargetArguments WINDOW = new Array(1, 2);
+
+    /**
+     * Loads the instance the target is called on.
+     *
+     * @param visitor visitor
+     * @param source type of the target owner
+     */
+    void loadInstance(MethodVisitor visitor, Type source);
+
+    /**
+     * Loads an argument of the target.
+     *
+     * @param visitor visitor
+     * @param index index of the argument
+     * @param type type expected by the target
+     */
+    void loadArgument(MethodVisitor visitor, int index, Type type);
+
+    /**
+     * Loads the instance without any conversion, used by reflective targets.
+     *
+     * @param visitor visitor
+     */
+    default void loadInstanceObject(MethodVisitor visitor) {
+        throw new UnsupportedOperationException("Reflective targets are not supported");
+    }
+
+    /**
+     * Loads all arguments as an object array, used by reflective targets.
+     *
+     * @param visitor visitor
+     */
+    default void loadArgumentArray(MethodVisitor visitor) {
+        throw new UnsupportedOperationException("Reflective targets are not supported");
+    }
+
+    /**
+     * Arguments stored as an object array in local variables.
+     *
+     * @param instanceSlot local variable of the instance
+     * @param argumentsSlot local variable of the argument array
+     */
+    record Array(int instanceSlot, int argumentsSlot) implements TargetArguments {
+
+        @Override
+        public void loadInstance(MethodVisitor visitor, Type source) {
+            visitor.visitVarInsn(ALOAD, instanceSlot);
+            if (!source.equals(Type.getType(Object.class))) visitor.visitTypeInsn(CHECKCAST, source.getInternalName());
+        }
+
+        @Override
+        public void loadArgument(MethodVisitor visitor, int index, Type type) {
+            visitor.visitVarInsn(ALOAD, argumentsSlot);
+            ASMUtil.pushInt(visitor, index);
+            visitor.visitInsn(AALOAD);
+            if (!type.equals(Type.getType(Object.class))) ConverterVisitor.convertTopObject(visitor, type);
+        }
+
+        @Override
+        public void loadInstanceObject(MethodVisitor visitor) {
+            visitor.visitVarInsn(ALOAD, instanceSlot);
+        }
+
+        @Override
+        public void loadArgumentArray(MethodVisitor visitor) {
+            visitor.visitVarInsn(ALOAD, argumentsSlot);
+        }
+
+    }
+
+}
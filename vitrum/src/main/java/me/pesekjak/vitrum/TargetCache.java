@@ -0,0 +1,251 @@
+package me.pesekjak.vitrum;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache of target results for {@link Target#cached()} targets, with weakly held
+ * instances compared by identity.
+ * <p>
+ * Reads do not lock, the chains of the table are immutable and are replaced by
+ * writers, which are synchronized.
+ * Primitive results are stored as raw bits, so they are never boxed.
+ * <p>
+ * Each cache is created once per generated class and target, using a dynamic constant
+ * bootstrapped by {@link #bootstrap(MethodHandles.Lookup, String, Class, String, long)}.
+ */
+final class TargetCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Caches used by generated classes, mapped by the generated class.
+     */
+    private static final ClassValue<Set<TargetCache>> CACHES = new ClassValue<>() {
+        @Override
+        protected Set<TargetCache> computeValue(Class<?> type) {
+            return ConcurrentHashMap.newKeySet();
+        }
+    };
+
+    private final long ttl;
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+
+    private TargetCache(long ttl) {
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+    }
+
+    /**
+     * Bootstrap method of the dynamic constants holding caches of generated classes.
+     *
+     * @param lookup lookup of the generated class
+     * @param name name of the constant
+     * @param type type of the constant
+     * @param target description of the cached target, distinguishes caches of different targets
+     * @param ttl time in milliseconds after which results expire, 0 if they never expire
+     * @return new cache
+     */
+    static TargetCache bootstrap(MethodHandles.Lookup lookup, String name, Class<?> type, String target, long ttl) {
+        TargetCache cache = new TargetCache(ttl);
+        CACHES.get(lookup.lookupClass()).add(cache);
+        return cache;
+    }
+
+    /**
+     * Drops results cached for given instance by all caches of a generated class.
+     *
+     * @param generated generated class
+     * @param instance instance to invalidate
+     */
+    static void invalidate(Class<?> generated, Object instance) {
+        if (instance == null) return;
+        for (TargetCache cache : CACHES.get(generated))
+            cache.remove(instance);
+    }
+
+    /**
+     * Returns entry cached for given instance.
+     *
+     * @param instance instance
+     * @return cached entry, or null if there is none or it expired
+     */
+    Entry get(Object instance) {
+        if (instance == null) return null;
+        int hash = System.identityHashCode(instance);
+        AtomicReferenceArray<Entry> table = this.table;
+        for (Entry entry = table.get(hash & (table.length() - 1)); entry != null; entry = entry.next) {
+            if (entry.hash != hash || entry.get() != instance) continue;
+            return entry.expires == 0 || entry.expires - System.nanoTime() > 0 ? entry : null;
+        }
+        return null;
+    }
+
+    int putInt(Object instance, int value) {
+        put(instance, value, null);
+        return value;
+    }
+
+    long putLong(Object instance, long value) {
+        put(instance, value, null);
+        return value;
+    }
+
+    float putFloat(Object instance, float value) {
+        put(instance, Float.floatToRawIntBits(value), null);
+        return value;
+    }
+
+    double putDouble(Object instance, double value) {
+        put(instance, Double.doubleToRawLongBits(value), null);
+        return value;
+    }
+
+    Object putObject(Object instance, Object value) {
+        put(instance, 0, value);
+        return value;
+    }
+
+    /**
+     * Stores result for given instance, replacing the previous one.
+     *
+     * @param instance instance
+     * @param primitive raw bits of a primitive result
+     * @param value object result
+     */
+    private synchronized void put(Object instance, long primitive, Object value) {
+        expunge();
+        remove(instance);
+        int hash = System.identityHashCode(instance);
+        long expires = ttl == 0 ? 0 : Math.max(System.nanoTime() + ttl, 1);
+        AtomicReferenceArray<Entry> table = this.table;
+        int index = hash & (table.length() - 1);
+        table.set(index, new Entry(instance, queue, hash, primitive, value, expires, table.get(index)));
+        if (++size > table.length() / 4 * 3) resize();
+    }
+
+    /**
+     * Removes result cached for given instance.
+     *
+     * @param instance instance
+     */
+    synchronized void remove(Object instance) {
+        AtomicReferenceArray<Entry> table = this.table;
+        int index = System.identityHashCode(instance) & (table.length() - 1);
+        for (Entry entry = table.get(index); entry != null; entry = entry.next) {
+            if (entry.get() == instance) {
+                unlink(table, index, entry);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes entries of collected instances.
+     */
+    private void expunge() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            Entry stale = (Entry) reference;
+            AtomicReferenceArray<Entry> table = this.table;
+            int index = stale.hash & (table.length() - 1);
+            for (Entry entry = table.get(index); entry != null; entry = entry.next) {
+                if (entry != stale) continue;
+                unlink(table, index, entry);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replaces the chain of a bucket with a copy without given entry.
+     *
+     * @param table table
+     * @param index index of the bucket
+     * @param removed entry to remove
+     */
+    private void unlink(AtomicReferenceArray<Entry> table, int index, Entry removed) {
+        Entry chain = removed.next;
+        for (Entry entry = table.get(index); entry != removed; entry = entry.next) {
+            Object instance = entry.get();
+            if (instance != null) chain = entry.copy(instance, queue, chain);
+            else size--;
+        }
+        table.set(index, chain);
+        size--;
+    }
+
+    /**
+     * Doubles capacity of the table, entries of collected instances are dropped.
+     */
+    private void resize() {
+        AtomicReferenceArray<Entry> previous = table;
+        AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<>(previous.length() * 2);
+        int size = 0;
+        for (int i = 0; i < previous.length(); i++) {
+            for (Entry entry = previous.get(i); entry != null; entry = entry.next) {
+                Object instance = entry.get();
+                if (instance == null) continue;
+                int index = entry.hash & (resized.length() - 1);
+                resized.set(index, entry.copy(instance, queue, resized.get(index)));
+                size++;
+            }
+        }
+        this.size = size;
+        table = resized;
+    }
+
+    /**
+     * Cached result of a single instance.
+     */
+    static final class Entry extends WeakReference<Object> {
+
+        final int hash;
+        final long primitive;
+        final Object value;
+        final long expires;
+        final Entry next;
+
+        Entry(Object instance, ReferenceQueue<Object> queue, int hash, long primitive, Object value, long expires, Entry next) {
+            super(instance, queue);
+            this.hash = hash;
+            this.primitive = primitive;
+            this.value = value;
+            this.expires = expires;
+            this.next = next;
+        }
+
+        Entry copy(Object instance, ReferenceQueue<Object> queue, Entry next) {
+            return new Entry(instance, queue, hash, primitive, value, expires, next);
+        }
+
+        int intValue() {
+            return (int) primitive;
+        }
+
+        long longValue() {
+            return primitive;
+        }
+
+        float floatValue() {
+            return Float.intBitsToFloat((int) primitive);
+        }
+
+        double doubleValue() {
+            return Double.longBitsToDouble(primitive);
+        }
+
+        Object objectValue() {
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+
+/**
+ * Reads {@link Target} annotations of window methods from the class files of their
+ * interfaces.
+ * <p>
+ * Unlike {@link Method#getAnnotation(Class)}, no annotation proxies are created and only
+ * targets of the requested handler are kept. Each interface is read once per handler,
+ * the targets are then cached in a table mapped by the method names and descriptors.
+ * <p>
+ * Interfaces without a class file, for example interfaces defined at runtime, are not
+ * read and their targets need to be resolved reflectively.
+ * <p>
+ * This is the only parser of the target annotations in class files, it is also used by
+ * the agent, which reads interfaces without loading them.
+ */
+final class TargetReader {
+
+    private static final String TARGET = Type.getDescriptor(Target.class);
+    private static final String MULTI_TARGET = Type.getDescriptor(MultiTarget.class);
+
+    /**
+     * Targets of the interface methods mapped by handler identifiers, empty if the
+     * interface does not have a class file.
+     */
+    private static final ClassValue<Map<String, Optional<Map<String, TargetSpec>>>> TABLES = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<Map<String, TargetSpec>>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private TargetReader() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns targets of the methods declared by an interface for given handler.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @return targets mapped by the method names and descriptors, or null if the
+     * class file of the interface is not available
+     */
+    static @Nullable Map<String, TargetSpec> getTargets(Class<?> clazz, String handler) {
+        return TABLES.get(clazz).computeIfAbsent(handler, key -> Optional.ofNullable(read(clazz, key))).orElse(null);
+    }
+
+    /**
+     * Returns key of a method in the target table.
+     *
+     * @param method method
+     * @return name and descriptor of the method
+     */
+    static String key(Method method) {
+        return method.getName() + Type.getMethodDescriptor(method);
+    }
+
+    /**
+     * Reads targets of given handler from the class file of an interface.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @return targets mapped by the method names and descriptors, or null if the
+     * class file is not available
+     */
+    private static @Nullable Map<String, TargetSpec> read(Class<?> clazz, String handler) {
+        String internalName = Type.getInternalName(clazz);
+        ClassReader reader;
+        try (InputStream stream = clazz.getResourceAsStream("/" + internalName + ".class")) {
+            if (stream == null) return null;
+            reader = new ClassReader(stream);
+        } catch (IOException exception) {
+            return null;
+        }
+        // the resource can be a different class than the one defined at runtime
+        if (!reader.getClassName().equals(internalName)) return null;
+        return read(reader, handler);
+    }
+
+    /**
+     * Reads targets of given handler from a class file.
+     *
+     * @param reader reader of the class file
+     * @param handler handler identifier
+     * @return targets mapped by the method names and descriptors
+     */
+    static Map<String, TargetSpec> read(ClassReader reader, String handler) {
+        Map<String, TargetSpec> targets = new HashMap<>();
+        reader.accept(new ClassVisitor(ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                String key = name + descriptor;
+                return new MethodVisitor(ASM9) {
+                    @Override
+                    public AnnotationVisitor visitAnnotation(String annotation, boolean visible) {
+                        if (annotation.equals(TARGET)) return new TargetVisitor(handler, key, targets);
+                        if (!annotation.equals(MULTI_TARGET)) return null;
+                        return new AnnotationVisitor(ASM9) {
+                            @Override
+                            public AnnotationVisitor visitArray(String name) {
+                                return new AnnotationVisitor(ASM9) {
+                                    @Override
+                                    public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+                                        return new TargetVisitor(handler, key, targets);
+                                    }
+                                };
+                            }
+                        };
+                    }
+                };
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return targets;
+    }
+
+    /**
+     * Collects values of a single target annotation, the target is stored only if it
+     * belongs to the requested handler.
+     */
+    private static final class TargetVisitor extends AnnotationVisitor {
+
+        private final String requested;
+        private final String key;
+        private final Map<String, TargetSpec> targets;
+
+        private @Nullable String handler;
+        private @Nullable String source;
+        private @Nullable String name;
+        private @Nullable String descriptor;
+        private boolean isStatic;
+        private boolean reflective;
+        private Target.Action action = Target.Action.CALL_METHOD;
+        private boolean cached;
+        private long cacheTtl;
+        private String affinity = "";
+        private boolean nestmate;
+
+        TargetVisitor(String requested, String key, Map<String, TargetSpec> targets) {
+            super(ASM9);
+            this.requested = requested;
+            this.key = key;
+            this.targets = targets;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            switch (name) {
+                case "handler" -> handler = (String) value;
+                case "source" -> source = (String) value;
+                case "name" -> this.name = (String) value;
+                case "descriptor" -> descriptor = (String) value;
+                case "isStatic" -> isStatic = (Boolean) value;
+                case "reflective" -> reflective = (Boolean) value;
+                case "cached" -> cached = (Boolean) value;
+                case "cacheTtl" -> cacheTtl = (Long) value;
+                case "affinity" -> affinity = (String) value;
+                case "nestmate" -> nestmate = (Boolean) value;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            if (name.equals("action")) action = Target.Action.valueOf(value);
+        }
+
+        @Override
+        public void visitEnd() {
+            // the first target of the handler wins, same as for the annotations
+            if (!requested.equals(handler) || targets.containsKey(key)) return;
+            targets.put(key, new TargetSpec(source, name, descriptor, isStatic, reflective, action, cached, cacheTtl, affinity, nestmate));
+        }
+
+    }
+
+}
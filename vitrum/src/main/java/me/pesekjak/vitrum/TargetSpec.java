@@ -0,0 +1,134 @@
+package me.pesekjak.vitrum;
+
+/**
+ * Resolved implementation of a window method for a single handler.
+ * <p>
+ * Unlike the {@link Target} annotation proxies, specs are compared by value,
+ * which allows sharing generated code between windows with identical targets.
+ * <p>
+ * Specs can be also created directly, for example for {@link Vitrum#accessor(Class, TargetSpec)}.
+ *
+ * @param source internal name of the owner class
+ * @param name name of the targeted class member
+ * @param descriptor descriptor of the targeted class member
+ * @param isStatic whether the targeted class member is static
+ * @param reflective whether to use Java reflection API to access the class member
+ * @param action action performed by the window method
+ * @param cached whether window methods cache the result per instance
+ * @param cacheTtl time in milliseconds after which cached results expire, 0 if they never expire
+ * @param affinity name of the affinity the target is called on, empty if it can be called on any thread
+ * @param nestmate whether to access the class member from a hidden class in the nest of the owner class
+ * @since 1.3.0
+ */
+public record TargetSpec(String source,
+                         String name,
+                         String descriptor,
+                         boolean isStatic,
+                         boolean reflective,
+                         Target.Action action,
+                         boolean cached,
+                         long cacheTtl,
+                         String affinity,
+                         boolean nestmate) {
+
+    /**
+     * Creates new spec of a target without cached results, affinity and nestmate access.
+     *
+     * @param source internal name of the owner class
+     * @param name name of the targeted class member
+     * @param descriptor descriptor of the targeted class member
+     * @param isStatic whether the targeted class member is static
+     * @param reflective whether to use Java reflection API to access the class member
+     * @param action action performed by the window method
+     * @since 1.3.0
+     */
+    public TargetSpec(String source, String name, String descriptor, boolean isStatic, boolean reflective, Target.Action action) {
+        this(source, name, descriptor, isStatic, reflective, action, false, 0, "", false);
+    }
+
+    /**
+     * Creates new spec of a non-static method.
+     *
+     * @param source internal name of the owner class
+     * @param name name of the method
+     * @param descriptor descriptor of the method
+     * @return spec
+     * @since 1.3.0
+     */
+    public static TargetSpec method(String source, String name, String descriptor) {
+        return new TargetSpec(source, name, descriptor, false, false, Target.Action.CALL_METHOD);
+    }
+
+    /**
+     * Creates new spec of a static method.
+     *
+     * @param source internal name of the owner class
+     * @param name name of the method
+     * @param descriptor descriptor of the method
+     * @return spec
+     * @since 1.3.0
+     */
+    public static TargetSpec staticMethod(String source, String name, String descriptor) {
+        return new TargetSpec(source, name, descriptor, true, false, Target.Action.CALL_METHOD);
+    }
+
+    /**
+     * Creates new spec of a constructor.
+     *
+     * @param source internal name of the owner class
+     * @param descriptor descriptor of the constructor
+     * @return spec
+     * @since 1.3.0
+     */
+    public static TargetSpec constructor(String source, String descriptor) {
+        return new TargetSpec(source, "<init>", descriptor, false, false, Target.Action.CALL_CONSTRUCTOR);
+    }
+
+    /**
+     * Creates new spec of a non-static field getter.
+     *
+     * @param source internal name of the owner class
+     * @param name name of the field
+     * @param descriptor descriptor of the field
+     * @return spec
+     * @since 1.3.0
+     */
+    public static TargetSpec getter(String source, String name, String descriptor) {
+        return new TargetSpec(source, name, descriptor, false, false, Target.Action.GET_FIELD);
+    }
+
+    /**
+     * Creates new spec of a non-static field setter.
+     *
+     * @param source internal name of the owner class
+     * @param name name of the field
+     * @param descriptor descriptor of the field
+     * @return spec
+     * @since 1.3.0
+     */
+    public static TargetSpec setter(String source, String name, String descriptor) {
+        return new TargetSpec(source, name, descriptor, false, false, Target.Action.SET_FIELD);
+    }
+
+    /**
+     * Creates new spec from target annotation.
+     *
+     * @param target target annotation
+     * @return spec
+     */
+    static TargetSpec of(Target target) {
+        return new TargetSpec(
+                target.source(),
+                target.name(),
+                target.descriptor(),
+                target.isStatic(),
+                target.reflective(),
+                target.action(),
+                target.cached(),
+                target.cacheTtl(),
+                target.affinity(),
+                target.nestmate()
+        );
+    }
+
+}
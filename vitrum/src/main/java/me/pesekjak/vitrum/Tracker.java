@@ -0,0 +1,85 @@
+package me.pesekjak.vitrum;
+
+/**
+ * Detects changes of a set of fields between calls, created using
+ * {@link Vitrum#tracker(java.util.List)}.
+ * <p>
+ * Previous values of the fields are kept in buffers owned by the caller, primitive
+ * fields are stored as their raw bits in a {@code long} array and reference fields
+ * in an object array, each instance uses its own region of the buffers selected by
+ * its index. Primitives are compared by their bits and references by their identity,
+ * so changes inside of a referenced object are not detected.
+ * <p>
+ * Each call returns a bitmask of the changed fields, where bit {@code n} is set if the
+ * {@code n}-th field has changed, and updates the buffers with the current values.
+ * As the buffers are initially filled with zeros and nulls, the first call reports all
+ * fields that do not have the default value.
+ *
+ * @since 1.3.0
+ */
+public abstract class Tracker {
+
+    /**
+     * Maximum number of fields of a single tracker.
+     *
+     * @since 1.3.0
+     */
+    public static final int MAX_FIELDS = Long.SIZE;
+
+    private final int primitives;
+    private final int references;
+
+    protected Tracker(int primitives, int references) {
+        this.primitives = primitives;
+        this.references = references;
+    }
+
+    /**
+     * Compares fields of an instance with their previous values and updates them.
+     *
+     * @param instance instance
+     * @param values buffer with the previous values of the primitive fields
+     * @param references buffer with the previous values of the reference fields
+     * @param index index of the instance in the buffers
+     * @return bitmask of the changed fields
+     * @since 1.3.0
+     */
+    public abstract long track(Object instance, long[] values, Object[] references, int index);
+
+    /**
+     * Compares fields of multiple instances with their previous values and updates them.
+     * <p>
+     * The instance at index {@code i} of the array uses region {@code i} of the buffers
+     * and its bitmask is stored at index {@code i} of the changes array.
+     *
+     * @param instances instances
+     * @param values buffer with the previous values of the primitive fields
+     * @param references buffer with the previous values of the reference fields
+     * @param changes array the bitmasks of the changed fields are stored into
+     * @since 1.3.0
+     */
+    public abstract void trackAll(Object[] instances, long[] values, Object[] references, long[] changes);
+
+    /**
+     * Creates buffer for previous values of the primitive fields.
+     *
+     * @param instances number of tracked instances
+     * @return new buffer
+     * @since 1.3.0
+     */
+    public long[] newValues(int instances) {
+        return new long[primitives * instances];
+    }
+
+    /**
+     * Creates buffer for previous values of the reference fields.
+     *
+     * @param instances number of tracked instances
+     * @return new buffer
+     * @since 1.3.0
+     */
+    public Object[] newReferences(int instances) {
+        return new Object[references * instances];
+    }
+
+}
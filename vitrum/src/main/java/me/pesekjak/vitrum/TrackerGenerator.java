@@ -0,0 +1,250 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates implementations of {@link Tracker}.
+ */
+final class TrackerGenerator {
+
+    private static final String TRACK_DESCRIPTOR = "(Ljava/lang/Object;[J[Ljava/lang/Object;I)J";
+
+    // local variables of the track method
+    private static final int INSTANCE = 1, VALUES = 2, REFERENCES = 3, INDEX = 4;
+    private static final int VALUES_OFFSET = 5, REFERENCES_OFFSET = 6, CHANGES = 7, CURRENT = 9;
+
+    /**
+     * Loads the tracked instance, field targets do not have any arguments.
+     */
+    private static final TargetArguments ARGUMENTS = new TargetArguments.Array(INSTANCE, -1);
+
+    private TrackerGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates new tracker.
+     *
+     * @param fields tracked fields
+     * @return tracker
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static Tracker generate(List<TargetSpec> fields) throws IllegalAccessException {
+        if (fields.isEmpty() || fields.size() > Tracker.MAX_FIELDS)
+            throw new IllegalArgumentException("Tracker needs to have between 1 and " + Tracker.MAX_FIELDS + " fields");
+        int primitives = 0;
+        int references = 0;
+        for (TargetSpec field : fields) {
+            if (field.action() != Target.Action.GET_FIELD || (field.reflective() && !field.nestmate()))
+                throw new IllegalArgumentException("Tracker can track only non-reflective or nestmate GET_FIELD targets, got " + field);
+            if (isPrimitive(Type.getType(field.descriptor()))) primitives++;
+            else references++;
+        }
+
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Tracker");
+        String superName = Type.getInternalName(Tracker.class);
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL, type.getInternalName(), null, superName, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        ASMUtil.pushInt(constructor, primitives);
+        ASMUtil.pushInt(constructor, references);
+        constructor.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "(II)V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        writeTrack(writer, fields, primitives, references);
+        writeTrackAll(writer, type);
+        writer.visitEnd();
+
+        Class<?> tracker = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup())
+                .defineHiddenClass(writer.toByteArray(), true)
+                .lookupClass();
+        try {
+            return (Tracker) tracker.getConstructor().newInstance();
+        } catch (InvocationTargetException | InstantiationException | NoSuchMethodException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Writes {@link Tracker#track(Object, long[], Object[], int)}, comparing
+     * all fields in a single method.
+     *
+     * @param writer writer
+     * @param fields tracked fields
+     * @param primitives number of primitive fields
+     * @param references number of reference fields
+     */
+    private static void writeTrack(ClassWriter writer, List<TargetSpec> fields, int primitives, int references) {
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, "track", TRACK_DESCRIPTOR, null, null);
+        visitor.visitCode();
+
+        writeOffset(visitor, primitives, VALUES_OFFSET);
+        writeOffset(visitor, references, REFERENCES_OFFSET);
+        visitor.visitInsn(LCONST_0);
+        visitor.visitVarInsn(LSTORE, CHANGES);
+
+        int primitive = 0;
+        int reference = 0;
+        for (int bit = 0; bit < fields.size(); bit++) {
+            TargetSpec field = fields.get(bit);
+            Type fieldType = Type.getType(field.descriptor());
+            boolean isPrimitive = isPrimitive(fieldType);
+            Label same = new Label();
+
+            if (field.nestmate()) NestmateGenerator.writeCall(field, visitor, ARGUMENTS);
+            else Vitrum.writeNonReflectiveCode(field, visitor, ARGUMENTS);
+            if (isPrimitive) {
+                writeBits(visitor, fieldType);
+                visitor.visitVarInsn(LSTORE, CURRENT);
+                loadSlot(visitor, VALUES, VALUES_OFFSET, primitive);
+                visitor.visitInsn(LALOAD);
+                visitor.visitVarInsn(LLOAD, CURRENT);
+                visitor.visitInsn(LCMP);
+                visitor.visitJumpInsn(IFEQ, same);
+            } else {
+                visitor.visitVarInsn(ASTORE, CURRENT);
+                loadSlot(visitor, REFERENCES, REFERENCES_OFFSET, reference);
+                visitor.visitInsn(AALOAD);
+                visitor.visitVarInsn(ALOAD, CURRENT);
+                visitor.visitJumpInsn(IF_ACMPEQ, same);
+            }
+
+            visitor.visitVarInsn(LLOAD, CHANGES);
+            visitor.visitLdcInsn(1L << bit);
+            visitor.visitInsn(LOR);
+            visitor.visitVarInsn(LSTORE, CHANGES);
+            if (isPrimitive) {
+                loadSlot(visitor, VALUES, VALUES_OFFSET, primitive++);
+                visitor.visitVarInsn(LLOAD, CURRENT);
+                visitor.visitInsn(LASTORE);
+            } else {
+                loadSlot(visitor, REFERENCES, REFERENCES_OFFSET, reference++);
+                visitor.visitVarInsn(ALOAD, CURRENT);
+                visitor.visitInsn(AASTORE);
+            }
+            visitor.visitLabel(same);
+        }
+
+        visitor.visitVarInsn(LLOAD, CHANGES);
+        visitor.visitInsn(LRETURN);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Writes {@link Tracker#trackAll(Object[], long[], Object[], long[])}.
+     * <p>
+     * The loop is generated for each tracker, so its call of the track method stays
+     * monomorphic and is inlined.
+     *
+     * @param writer writer
+     * @param type type of the tracker
+     */
+    private static void writeTrackAll(ClassWriter writer, Type type) {
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, "trackAll", "([Ljava/lang/Object;[J[Ljava/lang/Object;[J)V", null, null);
+        visitor.visitCode();
+        Label loop = new Label();
+        Label end = new Label();
+
+        visitor.visitInsn(ICONST_0);
+        visitor.visitVarInsn(ISTORE, 5);
+        visitor.visitLabel(loop);
+        visitor.visitVarInsn(ILOAD, 5);
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitInsn(ARRAYLENGTH);
+        visitor.visitJumpInsn(IF_ICMPGE, end);
+
+        visitor.visitVarInsn(ALOAD, 4);
+        visitor.visitVarInsn(ILOAD, 5);
+        visitor.visitVarInsn(ALOAD, 0);
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitVarInsn(ILOAD, 5);
+        visitor.visitInsn(AALOAD);
+        visitor.visitVarInsn(ALOAD, 2);
+        visitor.visitVarInsn(ALOAD, 3);
+        visitor.visitVarInsn(ILOAD, 5);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, type.getInternalName(), "track", TRACK_DESCRIPTOR, false);
+        visitor.visitInsn(LASTORE);
+        visitor.visitIincInsn(5, 1);
+        visitor.visitJumpInsn(GOTO, loop);
+
+        visitor.visitLabel(end);
+        visitor.visitInsn(RETURN);
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Computes offset of the instance region in a buffer.
+     *
+     * @param visitor visitor
+     * @param slots number of slots of an instance
+     * @param local local variable to store the offset into
+     */
+    private static void writeOffset(MethodVisitor visitor, int slots, int local) {
+        if (slots == 0) return;
+        visitor.visitVarInsn(ILOAD, INDEX);
+        if (slots != 1) {
+            ASMUtil.pushInt(visitor, slots);
+            visitor.visitInsn(IMUL);
+        }
+        visitor.visitVarInsn(ISTORE, local);
+    }
+
+    /**
+     * Loads buffer and index of a slot.
+     *
+     * @param visitor visitor
+     * @param buffer local variable of the buffer
+     * @param offset local variable of the instance region offset
+     * @param slot slot in the instance region
+     */
+    private static void loadSlot(MethodVisitor visitor, int buffer, int offset, int slot) {
+        visitor.visitVarInsn(ALOAD, buffer);
+        visitor.visitVarInsn(ILOAD, offset);
+        if (slot != 0) {
+            ASMUtil.pushInt(visitor, slot);
+            visitor.visitInsn(IADD);
+        }
+    }
+
+    /**
+     * Converts primitive on the top of the stack to long holding its raw bits.
+     *
+     * @param visitor visitor
+     * @param type primitive type
+     */
+    private static void writeBits(MethodVisitor visitor, Type type) {
+        switch (type.getSort()) {
+            case Type.LONG -> { }
+            case Type.FLOAT -> {
+                visitor.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Float.class), "floatToRawIntBits", "(F)I", false);
+                visitor.visitInsn(I2L);
+            }
+            case Type.DOUBLE -> visitor.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Double.class), "doubleToRawLongBits", "(D)J", false);
+            default -> visitor.visitInsn(I2L);
+        }
+    }
+
+    private static boolean isPrimitive(Type type) {
+        return ASMUtil.isPrimitive(type) && !ASMUtil.isArray(type);
+    }
+
+}
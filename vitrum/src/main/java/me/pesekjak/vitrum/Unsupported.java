@@ -0,0 +1,71 @@
+package me.pesekjak.vitrum;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Specifies the behaviour of window methods that have no target for the handler.
+ * <p>
+ * Can be used on a window method or on the whole window interface, annotation
+ * of the method takes precedence.
+ * Without this annotation, new {@link UnsupportedOperationException} is thrown.
+ *
+ * @since 1.3.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@java.lang.annotation.Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Unsupported {
+
+    /**
+     * Behaviour of the window methods.
+     *
+     * @return behaviour
+     * @since 1.3.0
+     */
+    Mode value();
+
+    /**
+     * Value returned by the window method if the mode is {@link Mode#RETURN_DEFAULT}.
+     * <p>
+     * The value is parsed to the return type of the window method, which needs to be
+     * a primitive or {@link String}.
+     * If left empty, default value of the return type is used ({@code null}, {@code 0}
+     * or {@code false}).
+     *
+     * @return default value
+     * @since 1.3.0
+     */
+    String defaultValue() default "";
+
+    /**
+     * Represents what should happen when unsupported window method is called.
+     *
+     * @since 1.3.0
+     */
+    enum Mode {
+
+        /**
+         * Throws new {@link UnsupportedOperationException}.
+         */
+        THROW,
+
+        /**
+         * Throws shared preallocated {@link RuntimeException} without stack trace.
+         * <p>
+         * Throwing the exception does not allocate, which makes it suitable for code that
+         * catches the exception on hot paths.
+         * Unlike in the {@link #THROW} mode, the exception is not an
+         * {@link UnsupportedOperationException}, so callers need to catch
+         * {@link RuntimeException} or check {@link Window#supports(String)} instead.
+         */
+        THROW_STACKLESS,
+
+        /**
+         * Returns {@link #defaultValue()}.
+         */
+        RETURN_DEFAULT
+
+    }
+
+}
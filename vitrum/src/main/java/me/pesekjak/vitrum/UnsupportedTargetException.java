@@ -0,0 +1,26 @@
+package me.pesekjak.vitrum;
+
+import java.io.Serial;
+
+/**
+ * Preallocated exception thrown by window methods in the
+ * {@link Unsupported.Mode#THROW_STACKLESS} mode.
+ * <p>
+ * The instance is shared, so it does not capture stack trace and suppressed
+ * exceptions can not be added to it.
+ */
+final class UnsupportedTargetException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Shared instance.
+     */
+    static final UnsupportedTargetException INSTANCE = new UnsupportedTargetException();
+
+    private UnsupportedTargetException() {
+        super("Window method has no target for the handler", null, false, false);
+    }
+
+}
@@ -2,14 +2,24 @@ package me.pesekjak.vitrum;
 
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Objects;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import static org.objectweb.asm.Opcodes.*;
 import static org.objectweb.asm.ClassWriter.*;
@@ -18,8 +28,12 @@ import static org.objectweb.asm.ClassWriter.*;
  * Core class of the Vitrum library.
  * <p>
  * Use {@link #createWindow(Class, String)} to create new window implementation.
+ * Many windows can be prepared at once with a smaller footprint using
+ * {@link #packWindows(Collection, String)}, or in parallel using
+ * {@link #preload(Collection, String, Executor)}.
  * <p>
  * The provided class needs to be an interface with methods annotated using {@link Target}.
+ * Each window implementation also implements {@link Window}.
  */
 public final class Vitrum {
 
@@ -36,10 +50,377 @@ public final class Vitrum {
     public static <T> T createWindow(Class<T> clazz, String handler) throws IllegalAccessException {
         if (!clazz.isInterface()) throw new IllegalArgumentException();
 
+        Class<?> known = WINDOW_CLASSES.get(clazz).get(handler);
+        if (known != null) return instantiate(clazz, known);
+
         T instance;
         if ((instance = returnIfAvailable(clazz, handler)) != null) return instance;
 
+        defineWindow(clazz, handler, generateWindow(clazz, handler));
+
+        instance = returnIfAvailable(clazz, handler);
+
+        return Objects.requireNonNull(instance, "Failed to create a new instance of %s".formatted(getDotPath(clazz, handler)));
+    }
+
+    /**
+     * Creates new multi-handler window implementation for given interface and handlers.
+     * <p>
+     * Methods of multi-handler windows follow the {@code int, Object, Object[]} arguments,
+     * where the first parameter is the index of the handler in the provided table.
+     * All handlers share a single class and each method dispatches to the target of
+     * the selected handler, so a single call site can serve all of them.
+     * <p>
+     * {@link Window#supports(String)} of the implementation returns whether at least
+     * one of the handlers implements the method.
+     *
+     * @param clazz interface class
+     * @param handlers handler table
+     * @return window implementation
+     * @param <T> window type
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static <T> T createWindow(Class<T> clazz, Handlers handlers) throws IllegalAccessException {
+        return MultiWindowGenerator.create(clazz, handlers);
+    }
+
+    /**
+     * Creates new window implementation for given interface and handler, bound
+     * to a single instance.
+     * <p>
+     * Methods of bound windows follow the {@code Object[]} arguments, as the instance
+     * is not passed to them anymore. The instance is held as a constant of the
+     * window class, which allows the JIT compiler to fold it for singleton targets.
+     * <p>
+     * Each call generates a new class, the window should be created once and reused.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @param instance instance the window operates on
+     * @return window implementation
+     * @param <T> window type
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static <T> T bindWindow(Class<T> clazz, String handler, Object instance) throws IllegalAccessException {
+        return BoundWindowGenerator.create(clazz, handler, instance);
+    }
+
+    /**
+     * Prepares window implementations for given interfaces and handler in parallel.
+     * <p>
+     * The window classes are generated concurrently using given executor and then
+     * defined, after the returned future completes {@link #createWindow(Class, String)}
+     * does not need to generate them anymore.
+     *
+     * @param windows interface classes
+     * @param handler handler identifier
+     * @param executor executor used to generate the window classes
+     * @return future completed once all windows are prepared
+     * @since 1.3.0
+     */
+    public static CompletableFuture<Void> preload(Collection<Class<?>> windows, String handler, Executor executor) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Class<?> clazz : windows) {
+            if (!clazz.isInterface()) throw new IllegalArgumentException();
+            if (WINDOW_CLASSES.get(clazz).containsKey(handler)) continue;
+            futures.add(CompletableFuture.supplyAsync(() -> generateWindow(clazz, handler), executor).thenAccept(bytes -> {
+                try {
+                    defineWindow(clazz, handler, bytes);
+                } catch (IllegalAccessException exception) {
+                    throw new CompletionException(exception);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Creates window implementations for given interfaces and handler in the
+     * metaspace-lean mode.
+     * <p>
+     * Instead of defining a class for each window, the interfaces are packed together
+     * into shared classes, and handlers that resolve to the same targets reuse the same
+     * implementation.
+     * Windows prepared by this method are then returned by {@link #createWindow(Class, String)}.
+     *
+     * @param classes interface classes
+     * @param handler handler identifier
+     * @throws IllegalAccessException if the classes can not be defined
+     * @since 1.3.0
+     */
+    public static void packWindows(Collection<Class<?>> classes, String handler) throws IllegalAccessException {
+        Map<Class<?>, Class<?>> packed = WindowPacker.pack(classes, handler);
+        packed.forEach((clazz, implementation) -> WINDOW_CLASSES.get(clazz).put(handler, implementation));
+    }
+
+    /**
+     * Creates accessor implementing given functional interface that is bound directly
+     * to a single target.
+     * <p>
+     * Parameters of the functional interface method are passed to the target in the same
+     * order, if the target is not static and not a constructor, first parameter is the instance.
+     * Parameters and the return value are converted only if their types differ from the
+     * target, primitives of matching types are passed without boxing.
+     * <p>
+     * Each call generates a new class, the accessor should be created once and reused.
+     * <p>
+     * The accessor type is inferred from the call site, so generic functional interfaces
+     * can be passed as class literals without unchecked conversions, for example
+     * {@code Function<Object, String> getter = Vitrum.accessor(Function.class, target)}.
+     *
+     * @param functionalInterface public functional interface to implement
+     * @param target target of the accessor, can not be reflective unless it is a nestmate target,
+     * cached or have an affinity
+     * @return accessor
+     * @param <F> functional interface type
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static <F> F accessor(Class<? super F> functionalInterface, TargetSpec target) throws IllegalAccessException {
+        return AccessorGenerator.generate(functionalInterface, target);
+    }
+
+    /**
+     * Returns index-based accessor of the public fields and methods of a class.
+     * <p>
+     * Members are resolved once using {@link MemberAccess#indexOf(String)} and then
+     * accessed by their indices using generated switches, without reflection.
+     * The accessor is generated once per class.
+     *
+     * @param internalName internal name of a public class
+     * @return member accessor
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static MemberAccess memberAccess(String internalName) throws IllegalAccessException {
+        return MemberAccessGenerator.get(internalName);
+    }
+
+    /**
+     * Creates tracker detecting changes of given fields.
+     * <p>
+     * All fields are compared by a single generated method without boxing,
+     * see {@link Tracker} for the details.
+     *
+     * @param fields non-reflective or nestmate {@link Target.Action#GET_FIELD} targets, at most {@link Tracker#MAX_FIELDS}
+     * @return tracker
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static Tracker tracker(List<TargetSpec> fields) throws IllegalAccessException {
+        return TrackerGenerator.generate(List.copyOf(fields));
+    }
+
+    /**
+     * Creates reverse window, an implementation of a hidden type that forwards calls
+     * of its methods to the provided callbacks.
+     * <p>
+     * Methods of the callback interface are annotated using {@link Target}, where
+     * {@link Target#source()} is the hidden interface or class to implement (the same for
+     * all methods of a handler) and {@link Target#name()} with {@link Target#descriptor()}
+     * specify the overridden method.
+     * Parameters of the callback method are the parameters of the hidden method, optionally
+     * preceded by a parameter that receives the hidden instance itself.
+     * Arguments and return values are converted only if their types differ.
+     * <p>
+     * Hidden classes need to be non-final with an accessible no-argument constructor.
+     *
+     * @param callbacks callback interface
+     * @param handler handler identifier
+     * @param delegate implementation of the callbacks
+     * @return instance of the hidden type
+     * @param <T> callback interface type
+     * @throws IllegalAccessException if the class can not be defined
+     * @since 1.3.0
+     */
+    public static <T> Object createReverseWindow(Class<T> callbacks, String handler, T delegate) throws IllegalAccessException {
+        return ReverseWindowGenerator.create(callbacks, handler, delegate);
+    }
+
+    /**
+     * Registers mappings for given handler.
+     * <p>
+     * Targets of the handler are then expected to use the deobfuscated names and are
+     * translated using the mappings before the window is generated.
+     * Classes that are not present in the mappings are used as they are, members
+     * of mapped classes can also be inherited from their mapped supertypes and
+     * generation fails if such member can not be found.
+     *
+     * @param handler handler identifier
+     * @param mappings mappings of the handler
+     * @since 1.3.0
+     */
+    public static void useMappings(String handler, Mappings mappings) {
+        MAPPINGS.put(handler, mappings);
+    }
+
+    /**
+     * Registers affinity under given name.
+     * <p>
+     * The affinity has to be registered before windows with targets of the affinity
+     * are created. Windows resolve the affinity only once, so each name can be
+     * registered only once.
+     *
+     * @param name name of the affinity used by {@link Target#affinity()}
+     * @param affinity affinity
+     * @throws IllegalStateException if there already is an affinity with given name
+     * @since 1.3.0
+     */
+    public static void useAffinity(String name, Affinity affinity) {
+        if (AFFINITIES.putIfAbsent(name, Objects.requireNonNull(affinity)) != null)
+            throw new IllegalStateException("Affinity " + name + " is already registered");
+    }
+
+    /**
+     * Uses profile of the window methods called by previous runs.
+     * <p>
+     * Windows created afterwards generate only the methods listed in the profile eagerly,
+     * targets of the other methods are generated and linked on their first call, so the
+     * startup cost depends on the methods that are used rather than the size of the
+     * window interfaces. Methods called for the first time are recorded and the profile
+     * file is updated on shutdown.
+     * <p>
+     * If the file does not exist yet, all targets are generated lazily and the file is
+     * created on shutdown. The profile needs to be set before the windows are created,
+     * use {@link #preloadProfile(Executor)} to generate the profiled windows in the background.
+     *
+     * @param file profile file, null to stop using the profile
+     * @throws IOException if the profile file can not be read
+     * @since 1.3.0
+     */
+    public static synchronized void useProfile(@Nullable Path file) throws IOException {
+        // calls recorded by the replaced profile would be lost on shutdown
+        WindowProfile.saveQuietly(profile);
+        if (file == null) {
+            profile = null;
+            return;
+        }
+        profile = WindowProfile.load(file);
+        if (!profileHook) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> WindowProfile.saveQuietly(profile), "Vitrum Profile"));
+            profileHook = true;
+        }
+    }
+
+    /**
+     * Prepares windows with methods in the profile used by {@link #useProfile(Path)} in parallel.
+     * <p>
+     * Interfaces of the profile that are not visible to the class loader of Vitrum are
+     * skipped, those need to be preloaded using {@link #preload(Collection, String, Executor)}.
+     *
+     * @param executor executor used to generate the window classes
+     * @return future completed once all windows are prepared
+     * @throws IllegalStateException if there is no profile in use
+     * @since 1.3.0
+     */
+    public static CompletableFuture<Void> preloadProfile(Executor executor) {
+        WindowProfile current = profile;
+        if (current == null) throw new IllegalStateException("There is no profile in use");
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        current.windows().forEach((handler, names) -> {
+            List<Class<?>> windows = new ArrayList<>();
+            for (String name : names) {
+                try {
+                    Class<?> clazz = Class.forName(name, false, Vitrum.class.getClassLoader());
+                    if (clazz.isInterface()) windows.add(clazz);
+                } catch (ClassNotFoundException ignored) {
+                }
+            }
+            futures.add(preload(windows, handler, executor));
+        });
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    private Vitrum() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Mappings used by targets of handlers, mapped by handler identifiers.
+     */
+    private static final Map<String, Mappings> MAPPINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Affinities used by targets, mapped by their names.
+     */
+    private static final Map<String, Affinity> AFFINITIES = new ConcurrentHashMap<>();
+
+    /**
+     * Profile of the called window methods, null if windows are generated eagerly.
+     */
+    private static volatile @Nullable WindowProfile profile;
+
+    /**
+     * Whether the shutdown hook saving the profile has been registered.
+     */
+    private static boolean profileHook;
+
+    /**
+     * Maximum number of window methods implemented by a single class, windows with
+     * more methods are split into part classes to stay within the class file limits
+     * and packed windows never grow beyond it.
+     */
+    static final int MAX_PART_METHODS = 1024;
+
+    /**
+     * Arguments of the static methods of window parts, which take the same parameters
+     * as the window methods.
+     */
+    static final TargetArguments PART_ARGUMENTS = new TargetArguments.Array(0, 1);
+
+    /**
+     * Lock guarding the definition of window implementations.
+     */
+    private static final Object DEFINE_LOCK = new Object();
+
+    /**
+     * Already defined window implementations, mapped by their interface and handler identifier.
+     */
+    private static final ClassValue<Map<String, Class<?>>> WINDOW_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<String, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Generates window implementation for given interface and handler.
+     * <p>
+     * If the window has more than {@link #MAX_PART_METHODS} targets, the targets are
+     * implemented by static methods of part classes and the window methods only
+     * delegate to them. Part classes have to be defined before the window class.
+     * <p>
+     * If there is a profile in use, only targets of the methods in the profile are generated,
+     * the others are generated lazily using {@link LazyTarget}.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @return bytes of the part classes followed by the window implementation class
+     */
+    static List<byte[]> generateWindow(Class<?> clazz, String handler) {
         Type type = getTypeForHandler(clazz, handler);
+        WindowProfile profile = Vitrum.profile;
+
+        Map<Method, @Nullable TargetSpec> targets = new LinkedHashMap<>();
+        List<Method> delegated = new ArrayList<>();
+        Set<Method> lazy = new HashSet<>();
+        for (Method method : clazz.getMethods()) {
+            if (!isWindowMethod(method)) continue;
+            TargetSpec target = getTarget(method, handler);
+            targets.put(method, target);
+            if (target == null) continue;
+            // caches are registered per window class and tasks of affinities are its members
+            if (!target.affinity().isEmpty() || target.cached()) continue;
+            if (profile != null && !profile.isHot(WindowProfile.key(clazz, handler, method))) {
+                checkParameters(method);
+                lazy.add(method);
+            } else {
+                delegated.add(method);
+            }
+        }
+        if (delegated.size() <= MAX_PART_METHODS) delegated.clear();
 
         ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
         writer.visit(
@@ -47,22 +428,119 @@ public final class Vitrum {
                 type.getInternalName(),
                 null,
                 Type.getType(Object.class).getInternalName(),
-                new String[] {Type.getType(clazz).getInternalName()}
+                new String[] {Type.getType(clazz).getInternalName(), Type.getInternalName(Window.class)}
         );
         writeConstructor(writer);
-        for (Method method : clazz.getMethods())
-            writeMethod(writer, method, handler);
+
+        List<byte[]> classes = new ArrayList<>();
+        for (Method method : lazy)
+            LazyTarget.writeStub(writer, clazz, method, handler);
+        if (delegated.isEmpty()) {
+            targets.forEach((method, target) -> {
+                if (!lazy.contains(method)) writeMethod(writer, method, target, handler);
+            });
+        } else {
+            Set<Method> split = new HashSet<>(delegated);
+            int parts = (delegated.size() + MAX_PART_METHODS - 1) / MAX_PART_METHODS;
+            for (int i = 0; i < parts; i++) {
+                Type partType = ASMUtil.getType(getDotPath(clazz, handler) + "$Part" + i);
+                List<Method> methods = delegated.subList(i * MAX_PART_METHODS, Math.min((i + 1) * MAX_PART_METHODS, delegated.size()));
+                classes.add(generatePart(partType, methods, targets, handler));
+                for (Method method : methods)
+                    writeDelegate(writer, method, partType);
+            }
+            targets.forEach((method, target) -> {
+                if (!split.contains(method) && !lazy.contains(method)) writeMethod(writer, method, target, handler);
+            });
+        }
+        SupportedNames.writeSupports(writer, clazz, handler);
         writer.visitEnd();
 
-        MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup()).defineClass(writer.toByteArray());
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        classes.add(bytes);
+        return classes;
+    }
 
-        instance = returnIfAvailable(clazz, handler);
+    /**
+     * Generates part of a split window implementation.
+     * <p>
+     * Each part implements targets of its methods as static methods with the same name and
+     * descriptor as the window method.
+     *
+     * @param type type of the part
+     * @param methods methods implemented by the part
+     * @param targets targets of the window methods
+     * @param handler handler identifier
+     * @return bytes of the part class
+     */
+    private static byte[] generatePart(Type type, List<Method> methods, Map<Method, @Nullable TargetSpec> targets, String handler) {
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER | ACC_FINAL,
+                type.getInternalName(),
+                null,
+                Type.getInternalName(Object.class),
+                null
+        );
+        for (Method method : methods) {
+            checkParameters(method);
+            Type methodType = Type.getType(method);
+            MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, method.getName(), methodType.getDescriptor(), null, null);
+            visitor.visitCode();
+            writeTarget(visitor, Objects.requireNonNull(targets.get(method)), methodType.getReturnType(), PART_ARGUMENTS, method.getName(), handler);
+            visitor.visitMaxs(0, 0);
+            visitor.visitEnd();
+        }
+        writer.visitEnd();
 
-        return Objects.requireNonNull(instance, "Failed to create a new instance of %s".formatted(type.getInternalName()));
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        return bytes;
     }
 
-    private Vitrum() {
-        throw new UnsupportedOperationException();
+    /**
+     * Writes window method that delegates to the static method of a window part.
+     *
+     * @param writer writer
+     * @param method method of the window interface
+     * @param part type of the part implementing the method
+     */
+    private static void writeDelegate(ClassWriter writer, Method method, Type part) {
+        Type methodType = Type.getType(method);
+        MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC, method.getName(), methodType.getDescriptor(), null, null);
+        visitor.visitCode();
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitVarInsn(ALOAD, 2);
+        visitor.visitMethodInsn(INVOKESTATIC, part.getInternalName(), method.getName(), methodType.getDescriptor(), false);
+        visitor.visitInsn(methodType.getReturnType().getOpcode(IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Defines generated window implementation, unless it has been already defined
+     * by another thread.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @param bytes bytes of the window implementation classes
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    private static void defineWindow(Class<?> clazz, String handler, List<byte[]> bytes) throws IllegalAccessException {
+        synchronized (DEFINE_LOCK) {
+            Class<?> defined;
+            try {
+                defined = Class.forName(getDotPath(clazz, handler), false, Vitrum.class.getClassLoader());
+            } catch (ClassNotFoundException ignored) {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup());
+                // parts precede the window class
+                defined = null;
+                for (byte[] next : bytes)
+                    defined = lookup.defineClass(next);
+            }
+            WINDOW_CLASSES.get(clazz).putIfAbsent(handler, defined);
+        }
     }
 
     /**
@@ -100,20 +578,34 @@ public final class Vitrum {
     private static <T> @Nullable T returnIfAvailable(Class<T> clazz, String handler) {
         try {
             Class<?> found = Class.forName(getDotPath(clazz, handler), false, Vitrum.class.getClassLoader());
-            return clazz.cast(found.getConstructor().newInstance());
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException exception) {
-            throw new RuntimeException(exception);
+            return instantiate(clazz, found);
         } catch (ClassNotFoundException ignored) {
             return null;
         }
     }
 
+    /**
+     * Returns new instance of given window implementation.
+     *
+     * @param clazz interface class
+     * @param implementation window implementation class
+     * @return new window instance
+     * @param <T> window type
+     */
+    static <T> T instantiate(Class<T> clazz, Class<?> implementation) {
+        try {
+            return clazz.cast(implementation.getConstructor().newInstance());
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
     /**
      * Writes default constructor into the class writer.
      *
      * @param writer writer
      */
-    private static void writeConstructor(ClassWriter writer) {
+    static void writeConstructor(ClassWriter writer) {
         MethodVisitor visitor = writer.visitMethod(
                 ACC_PUBLIC,
                 "<init>",
@@ -140,14 +632,12 @@ public final class Vitrum {
      *
      * @param writer writer
      * @param method method to implement
+     * @param target target of the method, null if the handler does not implement it
      * @param handler handler identifier for the window implementation
      */
-    private static void writeMethod(ClassWriter writer, Method method, String handler) {
-        if (!Modifier.isAbstract(method.getModifiers())) return;
-
-        Class<?>[] params = method.getParameterTypes();
-        if (params.length != 2 || params[0] != Object.class || params[1] != Object[].class)
-            throw new RuntimeException("Illegal method " + method.getName() + ", does not follow the 'Object, Object[]' arguments");
+    static void writeMethod(ClassWriter writer, Method method, @Nullable TargetSpec target, String handler) {
+        if (!isWindowMethod(method)) return;
+        checkParameters(method);
 
         // method of the window interface
         Type callingMethod = Type.getType(method);
@@ -160,70 +650,433 @@ public final class Vitrum {
                 null
         );
 
-        Target target = getTarget(method, handler);
-
         if (target == null) {
-            visitor.visitTypeInsn(NEW, Type.getInternalName(UnsupportedOperationException.class));
-            visitor.visitInsn(DUP);
-            visitor.visitMethodInsn(
-                    INVOKESPECIAL,
-                    Type.getInternalName(UnsupportedOperationException.class),
-                    "<init>",
-                    "()V",
-                    false
-            );
-            visitor.visitInsn(ATHROW);
+            writeUnsupported(visitor, method, callingMethod.getReturnType());
             visitor.visitMaxs(0, 0);
             visitor.visitEnd();
             return;
         }
 
+        if (!target.affinity().isEmpty()) {
+            writeAffine(writer, visitor, method, target, handler);
+        } else {
+            writeTarget(visitor, target, callingMethod.getReturnType(), TargetArguments.WINDOW, method.getName(), handler);
+        }
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    /**
+     * Checks whether the window method follows the {@code Object, Object[]} arguments.
+     *
+     * @param method method of the window interface
+     */
+    private static void checkParameters(Method method) {
+        Class<?>[] params = method.getParameterTypes();
+        if (params.length != 2 || params[0] != Object.class || params[1] != Object[].class)
+            throw new RuntimeException("Illegal method " + method.getName() + ", does not follow the 'Object, Object[]' arguments");
+    }
+
+    /**
+     * Writes the logic of a target for window method, including the conversion
+     * of its output to the window method return type.
+     *
+     * @param visitor visitor
+     * @param target target of the method
+     * @param returnType return type of the window method
+     * @param arguments loader of the instance and arguments
+     * @param method name of the window method
+     * @param handler handler identifier of the target
+     */
+    static void writeTarget(MethodVisitor visitor, TargetSpec target, Type returnType, TargetArguments arguments, String method, String handler) {
+        if (!target.affinity().isEmpty())
+            throw new RuntimeException("Affinity of method " + method + " is supported only by regular windows");
+        writeTargetValue(visitor, target, returnType, arguments, method, handler);
+        visitor.visitInsn(returnType.getOpcode(IRETURN));
+    }
+
+    /**
+     * Writes the logic of a target, leaving its output converted to given type
+     * on the stack.
+     *
+     * @param visitor visitor
+     * @param target target of the method
+     * @param returnType type of the output, nothing is left on the stack for void type
+     * @param arguments loader of the instance and arguments
+     * @param method name of the window method
+     * @param handler handler identifier of the target
+     */
+    private static void writeTargetValue(MethodVisitor visitor, TargetSpec target, Type returnType, TargetArguments arguments, String method, String handler) {
         if (target.isStatic() && target.action() == Target.Action.CALL_CONSTRUCTOR)
-            throw new RuntimeException("Constructor in method " + method.getName() + " defined as static for " + handler + " handler");
+            throw new RuntimeException("Constructor in method " + method + " defined as static for " + handler + " handler");
+        if (target.isStatic() && !isMemberAction(target.action()))
+            throw new RuntimeException("Target of method " + method + " can not be static for " + handler + " handler");
+
+        Type outputType = getOutputType(target);
 
-        if (!target.reflective()) {
-            writeNonReflectiveCode(target, visitor);
+        // Changes return types to what the nestmate accessor or ReflectionCaller util returns
+        if (target.nestmate())
+            outputType = NestmateGenerator.getCallType(target).getReturnType();
+        else if (target.reflective())
+            outputType = getOutputType(target).equals(Type.VOID_TYPE)
+                    ? Type.VOID_TYPE
+                    : Type.getType(Object.class);
+
+        Label cached = null;
+        if (target.cached()) {
+            if (target.isStatic()
+                    || (target.action() != Target.Action.CALL_METHOD && target.action() != Target.Action.GET_FIELD)
+                    || (target.action() == Target.Action.CALL_METHOD && Type.getArgumentTypes(target.descriptor()).length != 0)
+                    || outputType.equals(Type.VOID_TYPE))
+                throw new RuntimeException("Target of method " + method + " can not be cached for " + handler + " handler");
+            cached = new Label();
+            writeCacheLookup(visitor, target, outputType, arguments, cached);
+        }
+
+        if (target.nestmate()) {
+            NestmateGenerator.writeCall(target, visitor, arguments);
+        } else if (!target.reflective()) {
+            writeNonReflectiveCode(target, visitor, arguments);
         } else {
-            writeReflectiveCode(target, visitor);
+            writeReflectiveCode(target, visitor, arguments);
         }
 
-        Type targetType = target.action() == Target.Action.CALL_METHOD
-                ? Type.getMethodType(target.descriptor())
-                : Type.getType(target.descriptor());
+        if (cached != null) {
+            writeCacheStore(visitor, outputType);
+            visitor.visitLabel(cached);
+        }
+
+        if (returnType == Type.VOID_TYPE) {
+            if (outputType.getSize() != 0) visitor.visitInsn(outputType.getSize() == 2 ? POP2 : POP);
+        } else if (outputType.equals(Type.VOID_TYPE)) {
+            // null converted to the return type
+            switch (returnType.getSort()) {
+                case Type.LONG -> visitor.visitInsn(LCONST_0);
+                case Type.FLOAT -> visitor.visitInsn(FCONST_0);
+                case Type.DOUBLE -> visitor.visitInsn(DCONST_0);
+                case Type.OBJECT, Type.ARRAY -> visitor.visitInsn(ACONST_NULL);
+                default -> visitor.visitInsn(ICONST_0);
+            }
+        } else {
+            ConverterVisitor.convertOutput(visitor, outputType, returnType);
+        }
+    }
 
-        Type outputType = target.action() == Target.Action.CALL_METHOD
-                ? targetType.getReturnType()
-                : targetType;
+    /**
+     * Writes window method of a target with affinity.
+     * <p>
+     * On the affine thread the target is called directly and its result is returned
+     * as a completed future, otherwise the call is queued using a synthetic task method.
+     *
+     * @param writer writer
+     * @param visitor visitor of the window method
+     * @param method method of the window interface
+     * @param target target of the method
+     * @param handler handler identifier of the target
+     */
+    private static void writeAffine(ClassWriter writer, MethodVisitor visitor, Method method, TargetSpec target, String handler) {
+        if (!method.getReturnType().isAssignableFrom(CompletableFuture.class))
+            throw new RuntimeException("Method " + method.getName() + " with affinity does not return CompletableFuture");
+        if (getAffinity(target.affinity()) == null)
+            throw new RuntimeException("No affinity registered as " + target.affinity() + " for method " + method.getName());
 
-        // constructor returns void, but on stack will be new instance
-        if (target.action() == Target.Action.CALL_CONSTRUCTOR)
-            outputType = Type.getType("L" + target.source() + ";");
+        Type objectType = Type.getType(Object.class);
+        String taskName = "affine$" + method.getName() + "$" + Integer.toHexString(Type.getMethodDescriptor(method).hashCode());
+        String taskDescriptor = Type.getMethodDescriptor(objectType, objectType, Type.getType(Object[].class));
 
-        // Changes return types to what ReflectionCaller util returns
-        if (target.reflective())
-            outputType = target.action() != Target.Action.SET_FIELD
-                    ? Type.getType(Object.class)
-                    : Type.VOID_TYPE;
+        MethodVisitor task = writer.visitMethod(ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, taskName, taskDescriptor, null, null);
+        task.visitCode();
+        writeTargetValue(task, target, objectType, new TargetArguments.Array(0, 1), method.getName(), handler);
+        task.visitInsn(ARETURN);
+        task.visitMaxs(0, 0);
+        task.visitEnd();
 
-        if (callingMethod.getReturnType() == Type.VOID_TYPE) {
-            visitor.visitInsn(RETURN);
-        } else {
+        String affinity = Type.getInternalName(Affinity.class);
+        String lookup = Type.getDescriptor(MethodHandles.Lookup.class);
+        ConstantDynamic affinityConstant = new ConstantDynamic(
+                "affinity",
+                Type.getDescriptor(Affinity.class),
+                new Handle(H_INVOKESTATIC, affinity, "bootstrap",
+                        "(" + lookup + "Ljava/lang/String;Ljava/lang/Class;Ljava/lang/String;)L" + affinity + ";", false),
+                target.affinity()
+        );
+        ConstantDynamic taskConstant = new ConstantDynamic(
+                taskName,
+                Type.getDescriptor(MethodHandle.class),
+                new Handle(H_INVOKESTATIC, affinity, "bootstrapTask",
+                        "(" + lookup + "Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/invoke/MethodHandle;", false)
+        );
 
-            if (outputType.equals(Type.VOID_TYPE) || target.action() == Target.Action.SET_FIELD)
-                visitor.visitInsn(ACONST_NULL);
+        Label queued = new Label();
+        visitor.visitLdcInsn(affinityConstant);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, affinity, "isCurrent", "()Z", false);
+        visitor.visitJumpInsn(IFEQ, queued);
+        writeTargetValue(visitor, target, objectType, TargetArguments.WINDOW, method.getName(), handler);
+        visitor.visitMethodInsn(
+                INVOKESTATIC,
+                Type.getInternalName(CompletableFuture.class),
+                "completedFuture",
+                Type.getMethodDescriptor(Type.getType(CompletableFuture.class), objectType),
+                false
+        );
+        visitor.visitInsn(ARETURN);
 
-            if (target.action() != Target.Action.SET_FIELD
-                    && ASMUtil.isPrimitive(outputType)
-                    && !ASMUtil.isArray(outputType)
-                    && !outputType.equals(Type.VOID_TYPE))
-                ConverterVisitor.convertTopPrimitiveToObject(visitor, outputType);
+        visitor.visitLabel(queued);
+        visitor.visitLdcInsn(affinityConstant);
+        visitor.visitLdcInsn(taskConstant);
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitVarInsn(ALOAD, 2);
+        visitor.visitMethodInsn(
+                INVOKEVIRTUAL,
+                affinity,
+                "submit",
+                Type.getMethodDescriptor(Type.getType(CompletableFuture.class), Type.getType(MethodHandle.class), objectType, Type.getType(Object[].class)),
+                false
+        );
+        visitor.visitInsn(ARETURN);
+    }
 
-            ConverterVisitor.convertTopObject(visitor, callingMethod.getReturnType());
-            visitor.visitInsn(callingMethod.getReturnType().getOpcode(IRETURN));
-        }
+    /**
+     * Writes lookup of a cached target result.
+     * <p>
+     * If there is a cached result, it is loaded and the code jumps to the provided label,
+     * otherwise the cache and the instance are left on the stack for {@link #writeCacheStore(MethodVisitor, Type)}.
+     *
+     * @param visitor visitor
+     * @param target cached target
+     * @param outputType type of the target result
+     * @param arguments loader of the instance and arguments
+     * @param cached label following the target code
+     */
+    private static void writeCacheLookup(MethodVisitor visitor, TargetSpec target, Type outputType, TargetArguments arguments, Label cached) {
+        String cache = Type.getInternalName(TargetCache.class);
+        String entry = Type.getInternalName(TargetCache.Entry.class);
+        ConstantDynamic constant = new ConstantDynamic(
+                "cache",
+                Type.getDescriptor(TargetCache.class),
+                new Handle(
+                        H_INVOKESTATIC,
+                        cache,
+                        "bootstrap",
+                        Type.getMethodDescriptor(
+                                Type.getType(TargetCache.class),
+                                Type.getType(MethodHandles.Lookup.class),
+                                Type.getType(String.class),
+                                Type.getType(Class.class),
+                                Type.getType(String.class),
+                                Type.LONG_TYPE
+                        ),
+                        false
+                ),
+                target.toString(),
+                target.cacheTtl()
+        );
 
-        visitor.visitMaxs(0, 0);
-        visitor.visitEnd();
+        Label miss = new Label();
+        visitor.visitLdcInsn(constant);
+        arguments.loadInstanceObject(visitor);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, cache, "get", "(Ljava/lang/Object;)L" + entry + ";", false);
+        visitor.visitInsn(DUP);
+        visitor.visitJumpInsn(IFNULL, miss);
+        Type valueType = getCacheValueType(outputType);
+        String getter = switch (valueType.getSort()) {
+            case Type.INT -> "intValue";
+            case Type.LONG -> "longValue";
+            case Type.FLOAT -> "floatValue";
+            case Type.DOUBLE -> "doubleValue";
+            default -> "objectValue";
+        };
+        visitor.visitMethodInsn(INVOKEVIRTUAL, entry, getter, Type.getMethodDescriptor(valueType), false);
+        if (ASMUtil.isComplex(valueType) && !valueType.equals(outputType)) visitor.visitTypeInsn(CHECKCAST, outputType.getInternalName());
+        visitor.visitJumpInsn(GOTO, cached);
+
+        visitor.visitLabel(miss);
+        visitor.visitInsn(POP);
+        visitor.visitLdcInsn(constant);
+        arguments.loadInstanceObject(visitor);
+    }
+
+    /**
+     * Writes store of the target result into the cache, the result stays on the stack.
+     *
+     * @param visitor visitor
+     * @param outputType type of the target result
+     */
+    private static void writeCacheStore(MethodVisitor visitor, Type outputType) {
+        Type valueType = getCacheValueType(outputType);
+        String setter = switch (valueType.getSort()) {
+            case Type.INT -> "putInt";
+            case Type.LONG -> "putLong";
+            case Type.FLOAT -> "putFloat";
+            case Type.DOUBLE -> "putDouble";
+            default -> "putObject";
+        };
+        visitor.visitMethodInsn(
+                INVOKEVIRTUAL,
+                Type.getInternalName(TargetCache.class),
+                setter,
+                Type.getMethodDescriptor(valueType, Type.getType(Object.class), valueType),
+                false
+        );
+        if (ASMUtil.isComplex(valueType) && !valueType.equals(outputType)) visitor.visitTypeInsn(CHECKCAST, outputType.getInternalName());
+    }
+
+    /**
+     * Returns type used to store results of given type in {@link TargetCache}.
+     *
+     * @param outputType type of the target result
+     * @return stored type
+     */
+    private static Type getCacheValueType(Type outputType) {
+        return switch (outputType.getSort()) {
+            case Type.BOOLEAN, Type.BYTE, Type.CHAR, Type.SHORT, Type.INT -> Type.INT_TYPE;
+            case Type.LONG, Type.FLOAT, Type.DOUBLE -> outputType;
+            default -> Type.getType(Object.class);
+        };
+    }
+
+    /**
+     * Returns type of the value left on the stack by the non-reflective code of a target.
+     *
+     * @param target target
+     * @return output type of the target, void type if there is none
+     */
+    static Type getOutputType(TargetSpec target) {
+        return switch (target.action()) {
+            case CALL_METHOD -> Type.getReturnType(target.descriptor());
+            // constructor returns void, but on stack will be new instance
+            case CALL_CONSTRUCTOR -> Type.getObjectType(target.source());
+            case GET_FIELD -> Type.getType(target.descriptor());
+            case SET_FIELD, ARRAY_SET, FOR_EACH -> Type.VOID_TYPE;
+            case INSTANCE_OF -> Type.BOOLEAN_TYPE;
+            case CHECK_CAST -> Type.getObjectType(target.source());
+            case NEW_ARRAY -> getArrayType(target);
+            case ARRAY_LENGTH -> Type.INT_TYPE;
+            case ARRAY_GET -> getComponentType(target);
+        };
+    }
+
+    /**
+     * Returns types of the arguments expected by a target.
+     *
+     * @param target target
+     * @return argument types of the target
+     */
+    static Type[] getArgumentTypes(TargetSpec target) {
+        return switch (target.action()) {
+            case CALL_METHOD, CALL_CONSTRUCTOR -> Type.getArgumentTypes(target.descriptor());
+            case SET_FIELD -> new Type[] {Type.getType(target.descriptor())};
+            case GET_FIELD, INSTANCE_OF, CHECK_CAST, ARRAY_LENGTH -> new Type[0];
+            case NEW_ARRAY, ARRAY_GET -> new Type[] {Type.INT_TYPE};
+            case ARRAY_SET -> new Type[] {Type.INT_TYPE, getComponentType(target)};
+            case FOR_EACH -> new Type[] {ForEach.getConsumerType(target)};
+        };
+    }
+
+    /**
+     * Checks whether a target uses an instance.
+     *
+     * @param target target
+     * @return whether the target uses an instance
+     */
+    static boolean hasInstance(TargetSpec target) {
+        return !target.isStatic()
+                && target.action() != Target.Action.CALL_CONSTRUCTOR
+                && target.action() != Target.Action.NEW_ARRAY;
+    }
+
+    /**
+     * Checks whether an action accesses a member of the source class, only
+     * such actions can have a static target.
+     *
+     * @param action action
+     * @return whether the action accesses a class member
+     */
+    static boolean isMemberAction(Target.Action action) {
+        return switch (action) {
+            case CALL_METHOD, CALL_CONSTRUCTOR, GET_FIELD, SET_FIELD, FOR_EACH -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns component type of the arrays used by an array action, which is the
+     * source class unless the descriptor is set.
+     *
+     * @param target target
+     * @return component type
+     */
+    private static Type getComponentType(TargetSpec target) {
+        return target.descriptor().isEmpty()
+                ? Type.getObjectType(target.source())
+                : Type.getType(target.descriptor());
+    }
+
+    /**
+     * Returns type of the arrays used by an array action.
+     *
+     * @param target target
+     * @return array type
+     */
+    private static Type getArrayType(TargetSpec target) {
+        return Type.getType("[" + getComponentType(target).getDescriptor());
+    }
+
+    /**
+     * Writes the logic for the window methods without target for the handler.
+     *
+     * @param visitor visitor
+     * @param method method of the window interface
+     * @param returnType return type of the method
+     */
+    static void writeUnsupported(MethodVisitor visitor, Method method, Type returnType) {
+        Unsupported unsupported = getUnsupported(method);
+        Unsupported.Mode mode = unsupported != null ? unsupported.value() : Unsupported.Mode.THROW;
+        switch (mode) {
+            case THROW -> {
+                visitor.visitTypeInsn(NEW, Type.getInternalName(UnsupportedOperationException.class));
+                visitor.visitInsn(DUP);
+                visitor.visitMethodInsn(
+                        INVOKESPECIAL,
+                        Type.getInternalName(UnsupportedOperationException.class),
+                        "<init>",
+                        "()V",
+                        false
+                );
+                visitor.visitInsn(ATHROW);
+            }
+            case THROW_STACKLESS -> {
+                visitor.visitFieldInsn(
+                        GETSTATIC,
+                        Type.getInternalName(UnsupportedTargetException.class),
+                        "INSTANCE",
+                        Type.getDescriptor(UnsupportedTargetException.class)
+                );
+                visitor.visitInsn(ATHROW);
+            }
+            case RETURN_DEFAULT -> {
+                String value = unsupported.defaultValue();
+                switch (returnType.getSort()) {
+                    case Type.VOID -> { }
+                    case Type.BOOLEAN -> visitor.visitLdcInsn(Boolean.parseBoolean(value) ? 1 : 0);
+                    case Type.CHAR -> visitor.visitLdcInsn(value.isEmpty() ? 0 : (int) value.charAt(0));
+                    case Type.BYTE, Type.SHORT, Type.INT -> visitor.visitLdcInsn(value.isEmpty() ? 0 : Integer.parseInt(value));
+                    case Type.LONG -> visitor.visitLdcInsn(value.isEmpty() ? 0L : Long.parseLong(value));
+                    case Type.FLOAT -> visitor.visitLdcInsn(value.isEmpty() ? 0F : Float.parseFloat(value));
+                    case Type.DOUBLE -> visitor.visitLdcInsn(value.isEmpty() ? 0D : Double.parseDouble(value));
+                    default -> {
+                        if (value.isEmpty()) {
+                            visitor.visitInsn(ACONST_NULL);
+                        } else if (returnType.equals(Type.getType(String.class))) {
+                            visitor.visitLdcInsn(value);
+                        } else {
+                            throw new RuntimeException("Default value of method " + method.getName() + " can not be used for its return type");
+                        }
+                    }
+                }
+                visitor.visitInsn(returnType.getOpcode(IRETURN));
+            }
+        }
     }
 
     /**
@@ -232,20 +1085,21 @@ public final class Vitrum {
      *
      * @param target target instance
      * @param visitor visitor
+     * @param arguments loader of the instance and arguments
      */
-    private static void writeNonReflectiveCode(Target target, MethodVisitor visitor) {
-        Type targetType = target.action() == Target.Action.CALL_METHOD
-                ? Type.getMethodType(target.descriptor())
-                : Type.getType(target.descriptor());
-
-        if (!target.isStatic() && target.action() != Target.Action.CALL_CONSTRUCTOR) {
-            visitor.visitVarInsn(ALOAD, 1);
-            visitor.visitTypeInsn(CHECKCAST, target.source());
+    static void writeNonReflectiveCode(TargetSpec target, MethodVisitor visitor, TargetArguments arguments) {
+        if (hasInstance(target)) {
+            Type instanceType = switch (target.action()) {
+                case INSTANCE_OF, CHECK_CAST -> Type.getType(Object.class);
+                case ARRAY_LENGTH, ARRAY_GET, ARRAY_SET -> getArrayType(target);
+                default -> Type.getObjectType(target.source());
+            };
+            arguments.loadInstance(visitor, instanceType);
         }
 
         switch (target.action()) {
             case CALL_METHOD -> {
-                loadMethodArguments(visitor, targetType);
+                loadMethodArguments(visitor, Type.getMethodType(target.descriptor()), arguments);
                 visitor.visitMethodInsn(
                         target.isStatic() ? INVOKESTATIC : INVOKEVIRTUAL,
                         target.source(),
@@ -257,7 +1111,7 @@ public final class Vitrum {
             case CALL_CONSTRUCTOR -> {
                 visitor.visitTypeInsn(NEW, target.source());
                 visitor.visitInsn(DUP);
-                loadMethodArguments(visitor, targetType);
+                loadMethodArguments(visitor, Type.getMethodType(target.descriptor()), arguments);
                 visitor.visitMethodInsn(
                         INVOKESPECIAL,
                         target.source(),
@@ -273,10 +1127,7 @@ public final class Vitrum {
                     target.descriptor()
             );
             case SET_FIELD -> {
-                visitor.visitVarInsn(ALOAD, 2);
-                visitor.visitLdcInsn(0);
-                visitor.visitInsn(AALOAD);
-                ConverterVisitor.convertTopObject(visitor, targetType);
+                arguments.loadArgument(visitor, 0, Type.getType(target.descriptor()));
                 visitor.visitFieldInsn(
                         target.isStatic() ? PUTSTATIC : PUTFIELD,
                         target.source(),
@@ -284,6 +1135,46 @@ public final class Vitrum {
                         target.descriptor()
                 );
             }
+            case FOR_EACH -> {
+                visitor.visitFieldInsn(
+                        target.isStatic() ? GETSTATIC : GETFIELD,
+                        target.source(),
+                        target.name(),
+                        target.descriptor()
+                );
+                ForEach.writeIteration(target, visitor, arguments);
+            }
+            case INSTANCE_OF -> visitor.visitTypeInsn(INSTANCEOF, target.source());
+            case CHECK_CAST -> visitor.visitTypeInsn(CHECKCAST, target.source());
+            case NEW_ARRAY -> {
+                Type component = getComponentType(target);
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                if (ASMUtil.isPrimitive(component) && !ASMUtil.isArray(component)) {
+                    visitor.visitIntInsn(NEWARRAY, switch (component.getSort()) {
+                        case Type.BOOLEAN -> T_BOOLEAN;
+                        case Type.CHAR -> T_CHAR;
+                        case Type.BYTE -> T_BYTE;
+                        case Type.SHORT -> T_SHORT;
+                        case Type.INT -> T_INT;
+                        case Type.FLOAT -> T_FLOAT;
+                        case Type.LONG -> T_LONG;
+                        default -> T_DOUBLE;
+                    });
+                } else {
+                    visitor.visitTypeInsn(ANEWARRAY, component.getInternalName());
+                }
+            }
+            case ARRAY_LENGTH -> visitor.visitInsn(ARRAYLENGTH);
+            case ARRAY_GET -> {
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                visitor.visitInsn(getComponentType(target).getOpcode(IALOAD));
+            }
+            case ARRAY_SET -> {
+                Type component = getComponentType(target);
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                arguments.loadArgument(visitor, 1, component);
+                visitor.visitInsn(component.getOpcode(IASTORE));
+            }
         }
     }
 
@@ -292,14 +1183,12 @@ public final class Vitrum {
      *
      * @param visitor visitor
      * @param targetType method type
+     * @param arguments loader of the arguments
      */
-    private static void loadMethodArguments(MethodVisitor visitor, Type targetType) {
+    private static void loadMethodArguments(MethodVisitor visitor, Type targetType, TargetArguments arguments) {
         int index = 0;
         for (Type param : targetType.getArgumentTypes()) {
-            visitor.visitVarInsn(ALOAD, 2);
-            visitor.visitLdcInsn(index);
-            visitor.visitInsn(AALOAD);
-            ConverterVisitor.convertTopObject(visitor, param);
+            arguments.loadArgument(visitor, index, param);
             index++;
         }
     }
@@ -310,15 +1199,16 @@ public final class Vitrum {
      *
      * @param target target instance
      * @param visitor visitor
+     * @param arguments loader of the instance and arguments
      */
-    private static void writeReflectiveCode(Target target, MethodVisitor visitor) {
+    private static void writeReflectiveCode(TargetSpec target, MethodVisitor visitor, TargetArguments arguments) {
         switch (target.action()) {
             case CALL_METHOD -> {
                 visitor.visitLdcInsn(target.source());
                 visitor.visitLdcInsn(target.name());
                 visitor.visitLdcInsn(target.descriptor());
-                visitor.visitVarInsn(ALOAD, 1);
-                visitor.visitVarInsn(ALOAD, 2);
+                arguments.loadInstanceObject(visitor);
+                arguments.loadArgumentArray(visitor);
                 visitor.visitMethodInsn(
                         INVOKESTATIC,
                         Type.getInternalName(ReflectionCaller.class),
@@ -337,7 +1227,7 @@ public final class Vitrum {
             case CALL_CONSTRUCTOR -> {
                 visitor.visitLdcInsn(target.source());
                 visitor.visitLdcInsn(target.descriptor());
-                visitor.visitVarInsn(ALOAD, 2);
+                arguments.loadArgumentArray(visitor);
                 visitor.visitMethodInsn(
                         INVOKESTATIC,
                         Type.getInternalName(ReflectionCaller.class),
@@ -351,10 +1241,10 @@ public final class Vitrum {
                         false
                 );
             }
-            case GET_FIELD -> {
+            case GET_FIELD, FOR_EACH -> {
                 visitor.visitLdcInsn(target.source());
                 visitor.visitLdcInsn(target.name());
-                visitor.visitVarInsn(ALOAD, 1);
+                arguments.loadInstanceObject(visitor);
                 visitor.visitMethodInsn(
                         INVOKESTATIC,
                         Type.getInternalName(ReflectionCaller.class),
@@ -367,14 +1257,14 @@ public final class Vitrum {
                         ),
                         false
                 );
+                // only the field is accessed reflectively, its value is iterated directly
+                if (target.action() == Target.Action.FOR_EACH) ForEach.writeIteration(target, visitor, arguments);
             }
             case SET_FIELD -> {
                 visitor.visitLdcInsn(target.source());
                 visitor.visitLdcInsn(target.name());
-                visitor.visitVarInsn(ALOAD, 1);
-                visitor.visitVarInsn(ALOAD, 2);
-                visitor.visitLdcInsn(0);
-                visitor.visitInsn(AALOAD);
+                arguments.loadInstanceObject(visitor);
+                arguments.loadArgument(visitor, 0, Type.getType(Object.class));
                 visitor.visitMethodInsn(
                         INVOKESTATIC,
                         Type.getInternalName(ReflectionCaller.class),
@@ -389,23 +1279,150 @@ public final class Vitrum {
                         false
                 );
             }
+            case INSTANCE_OF, CHECK_CAST -> {
+                visitor.visitLdcInsn(target.source());
+                arguments.loadInstanceObject(visitor);
+                visitor.visitMethodInsn(
+                        INVOKESTATIC,
+                        Type.getInternalName(ReflectionCaller.class),
+                        target.action() == Target.Action.INSTANCE_OF ? "isInstance" : "cast",
+                        Type.getMethodDescriptor(
+                                Type.getType(Object.class),
+                                Type.getType(String.class),
+                                Type.getType(Object.class)
+                        ),
+                        false
+                );
+            }
+            case NEW_ARRAY -> {
+                visitor.visitLdcInsn(target.source());
+                visitor.visitLdcInsn(target.descriptor());
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                visitor.visitMethodInsn(
+                        INVOKESTATIC,
+                        Type.getInternalName(ReflectionCaller.class),
+                        "newArray",
+                        Type.getMethodDescriptor(
+                                Type.getType(Object.class),
+                                Type.getType(String.class),
+                                Type.getType(String.class),
+                                Type.INT_TYPE
+                        ),
+                        false
+                );
+            }
+            case ARRAY_LENGTH -> {
+                arguments.loadInstanceObject(visitor);
+                visitor.visitMethodInsn(
+                        INVOKESTATIC,
+                        Type.getInternalName(ReflectionCaller.class),
+                        "arrayLength",
+                        Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class)),
+                        false
+                );
+            }
+            case ARRAY_GET -> {
+                arguments.loadInstanceObject(visitor);
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                visitor.visitMethodInsn(
+                        INVOKESTATIC,
+                        Type.getInternalName(ReflectionCaller.class),
+                        "arrayGet",
+                        Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class), Type.INT_TYPE),
+                        false
+                );
+            }
+            case ARRAY_SET -> {
+                arguments.loadInstanceObject(visitor);
+                arguments.loadArgument(visitor, 0, Type.INT_TYPE);
+                arguments.loadArgument(visitor, 1, Type.getType(Object.class));
+                visitor.visitMethodInsn(
+                        INVOKESTATIC,
+                        Type.getInternalName(ReflectionCaller.class),
+                        "arraySet",
+                        Type.getMethodDescriptor(
+                                Type.VOID_TYPE,
+                                Type.getType(Object.class),
+                                Type.INT_TYPE,
+                                Type.getType(Object.class)
+                        ),
+                        false
+                );
+            }
         }
     }
 
     /**
-     * Returns target annotation for given method and with given handler identifier.
+     * Returns profile of the called window methods.
+     *
+     * @return profile, or null if there is none in use
+     */
+    static @Nullable WindowProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns affinity registered under given name.
+     *
+     * @param name name of the affinity
+     * @return affinity, or null if there is none
+     */
+    static @Nullable Affinity getAffinity(String name) {
+        return AFFINITIES.get(name);
+    }
+
+    /**
+     * Checks whether the method needs to be implemented by the window.
+     *
+     * @param method method of the window interface
+     * @return whether the method is a window method
+     */
+    static boolean isWindowMethod(Method method) {
+        return Modifier.isAbstract(method.getModifiers()) && method.getDeclaringClass() != Window.class;
+    }
+
+    /**
+     * Returns the behaviour of given method if it has no target.
+     *
+     * @param method method of the window interface
+     * @return unsupported annotation of the method or its interface
+     */
+    static @Nullable Unsupported getUnsupported(Method method) {
+        Unsupported unsupported = method.getAnnotation(Unsupported.class);
+        return unsupported != null ? unsupported : method.getDeclaringClass().getAnnotation(Unsupported.class);
+    }
+
+    /**
+     * Returns target for given method and with given handler identifier.
+     * <p>
+     * Targets are read from the class file of the interface using {@link TargetReader},
+     * the annotations are used only if the class file is not available.
      *
      * @param method method
      * @param handler handler identifier
-     * @return target annotation
+     * @return target
      */
-    private static @Nullable Target getTarget(Method method, String handler) {
-        Target single = method.getAnnotation(Target.class);
-        if (single != null) return getTarget(new Target[] {single}, handler);
+    static @Nullable TargetSpec getTarget(Method method, String handler) {
+        TargetSpec spec;
+        Map<String, TargetSpec> targets = TargetReader.getTargets(method.getDeclaringClass(), handler);
+        if (targets != null) {
+            spec = targets.get(TargetReader.key(method));
+        } else {
+            Target target;
+            Target single = method.getAnnotation(Target.class);
+            if (single != null) {
+                target = getTarget(new Target[] {single}, handler);
+            } else {
+                MultiTarget multi = method.getAnnotation(MultiTarget.class);
+                if (multi == null) return null;
+                target = getTarget(multi.value(), handler);
+            }
+            spec = target != null ? TargetSpec.of(target) : null;
+        }
+        if (spec == null) return null;
 
-        MultiTarget multi = method.getAnnotation(MultiTarget.class);
-        if (multi == null) return null;
-        return getTarget(multi.value(), handler);
+        Mappings mappings = MAPPINGS.get(handler);
+        return mappings != null ? mappings.remap(spec) : spec;
     }
 
     /**
@@ -0,0 +1,39 @@
+package me.pesekjak.vitrum;
+
+/**
+ * Interface implemented by every window implementation.
+ * <p>
+ * Window interfaces can extend this interface to expose its methods directly,
+ * otherwise the window instance can be cast to it.
+ *
+ * @since 1.3.0
+ */
+public interface Window {
+
+    /**
+     * Checks whether the handler of this window implements method with given name.
+     * <p>
+     * The check does not allocate and is resolved by the generated implementation,
+     * so it can be used to probe optional features instead of catching
+     * the exceptions thrown by unsupported methods (see {@link Unsupported.Mode}).
+     *
+     * @param method name of the window method
+     * @return whether the method has a target for the handler of this window
+     * @since 1.3.0
+     */
+    boolean supports(String method);
+
+    /**
+     * Drops results cached for given instance by the methods of this window
+     * with {@link Target#cached()} targets.
+     * <p>
+     * Caches are shared by all windows of the same implementation class.
+     *
+     * @param instance instance to invalidate
+     * @since 1.3.0
+     */
+    default void invalidate(Object instance) {
+        TargetCache.invalidate(getClass(), instance);
+    }
+
+}
@@ -0,0 +1,206 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Packs multiple window interfaces into shared implementation classes.
+ * <p>
+ * Each packed class implements every interface of its group, methods with the same
+ * name, descriptor and target share a single implementation and groups that resolve
+ * to the same targets are defined only once, no matter the handler.
+ * <p>
+ * Interfaces are packed only if the result of {@link Window#supports(String)} stays
+ * the same for each of them, so all interfaces of a group support the same method names,
+ * and only if no shared implementation overrides a default method of another interface.
+ */
+final class WindowPacker {
+
+    private static final Map<Key, Class<?>> PACKED_CLASSES = new HashMap<>();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private WindowPacker() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Packs window interfaces for given handler into shared classes.
+     *
+     * @param classes interface classes
+     * @param handler handler identifier
+     * @return window implementations mapped by their interfaces
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static synchronized Map<Class<?>, Class<?>> pack(Collection<Class<?>> classes, String handler) throws IllegalAccessException {
+        List<Group> groups = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            if (!clazz.isInterface()) throw new IllegalArgumentException();
+
+            Map<String, Method> methods = new LinkedHashMap<>();
+            Map<String, TargetSpec> targets = new HashMap<>();
+            Set<String> defaults = new HashSet<>();
+            for (Method method : clazz.getMethods()) {
+                String key = method.getName() + Type.getMethodDescriptor(method);
+                if (!Vitrum.isWindowMethod(method)) {
+                    if (!Modifier.isStatic(method.getModifiers())) defaults.add(key);
+                    continue;
+                }
+                methods.put(key, method);
+                targets.put(key, Vitrum.getTarget(method, handler));
+            }
+
+            Group group = null;
+            for (Group next : groups) {
+                if (!next.accepts(methods, targets, defaults)) continue;
+                group = next;
+                break;
+            }
+            if (group == null) groups.add(group = new Group());
+            group.add(clazz, methods, targets, defaults);
+        }
+
+        Map<Class<?>, Class<?>> packed = new HashMap<>();
+        for (Group group : groups) {
+            Key key = new Key(List.copyOf(group.interfaces), Collections.unmodifiableMap(new HashMap<>(group.targets)));
+            Class<?> implementation = PACKED_CLASSES.get(key);
+            if (implementation == null) {
+                implementation = define(group, handler);
+                PACKED_CLASSES.put(key, implementation);
+            }
+            for (Class<?> clazz : group.interfaces)
+                packed.put(clazz, implementation);
+        }
+        return packed;
+    }
+
+    /**
+     * Defines the shared implementation of a group.
+     *
+     * @param group group to define
+     * @param handler handler identifier
+     * @return defined class
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    private static Class<?> define(Group group, String handler) throws IllegalAccessException {
+        Type type = ASMUtil.getType(Vitrum.class.getName() + "_Packed" + COUNTER.incrementAndGet());
+
+        ClassWriter writer = new ClassWriter(ASM9 | COMPUTE_FRAMES | COMPUTE_MAXS);
+        writer.visit(
+                V16, ACC_PUBLIC | ACC_SUPER,
+                type.getInternalName(),
+                null,
+                Type.getType(Object.class).getInternalName(),
+                Stream.concat(group.interfaces.stream(), Stream.of(Window.class))
+                        .map(Type::getInternalName)
+                        .toArray(String[]::new)
+        );
+        Vitrum.writeConstructor(writer);
+        for (Map.Entry<String, Method> entry : group.methods.entrySet())
+            Vitrum.writeMethod(writer, entry.getValue(), group.targets.get(entry.getKey()), handler);
+        // all interfaces of the group support the same names
+        SupportedNames.writeSupports(writer, group.interfaces.getFirst(), handler);
+        writer.visitEnd();
+
+        byte[] bytes = writer.toByteArray();
+        InliningAudit.audit(bytes);
+        return MethodHandles.privateLookupIn(Vitrum.class, MethodHandles.lookup()).defineClass(bytes);
+    }
+
+    /**
+     * Interfaces implemented by a single packed class.
+     */
+    private static final class Group {
+
+        final List<Class<?>> interfaces = new ArrayList<>();
+        final Map<String, Method> methods = new LinkedHashMap<>();
+        final Map<String, @Nullable TargetSpec> targets = new HashMap<>();
+        final Set<String> supported = new HashSet<>();
+        final Set<String> defaults = new HashSet<>();
+
+        /**
+         * Checks whether an interface with given methods can be added to this group.
+         * <p>
+         * The interface has to support the same method names as the interfaces of the group.
+         * Methods of the same name and descriptor are allowed only if they share
+         * the same target and none of them is a default method of another interface.
+         *
+         * @param methods methods of the interface
+         * @param targets targets of the interface
+         * @param defaults names and descriptors of the default methods of the interface
+         * @return whether the interface can be added
+         */
+        boolean accepts(Map<String, Method> methods, Map<String, TargetSpec> targets, Set<String> defaults) {
+            if (!interfaces.isEmpty() && !supported.equals(getSupported(methods, targets))) return false;
+            for (String key : defaults) {
+                if (this.methods.containsKey(key)) return false;
+            }
+            int added = 0;
+            for (Map.Entry<String, Method> entry : methods.entrySet()) {
+                String key = entry.getKey();
+                TargetSpec target = targets.get(key);
+                if (this.defaults.contains(key)) return false;
+
+                if (!this.methods.containsKey(key)) {
+                    added++;
+                    continue;
+                }
+                if (!Objects.equals(this.targets.get(key), target)) return false;
+                if (target == null && !Objects.equals(Vitrum.getUnsupported(this.methods.get(key)), Vitrum.getUnsupported(entry.getValue())))
+                    return false;
+            }
+            return this.methods.size() + added <= Vitrum.MAX_PART_METHODS;
+        }
+
+        /**
+         * Adds an interface to this group.
+         *
+         * @param clazz interface class
+         * @param methods methods of the interface
+         * @param targets targets of the interface
+         * @param defaults names and descriptors of the default methods of the interface
+         */
+        void add(Class<?> clazz, Map<String, Method> methods, Map<String, TargetSpec> targets, Set<String> defaults) {
+            if (interfaces.isEmpty()) supported.addAll(getSupported(methods, targets));
+            interfaces.add(clazz);
+            methods.forEach(this.methods::putIfAbsent);
+            targets.forEach(this.targets::putIfAbsent);
+            this.defaults.addAll(defaults);
+        }
+
+        /**
+         * @param methods methods of an interface
+         * @param targets targets of the interface
+         * @return names of the methods supported by the interface
+         */
+        private static Set<String> getSupported(Map<String, Method> methods, Map<String, TargetSpec> targets) {
+            Set<String> supported = new HashSet<>();
+            methods.forEach((key, method) -> {
+                if (targets.get(key) != null) supported.add(method.getName());
+            });
+            return supported;
+        }
+
+    }
+
+    /**
+     * Identifies a packed class by its interfaces and the targets of its methods.
+     *
+     * @param interfaces implemented interfaces
+     * @param targets targets mapped by method names and descriptors
+     */
+    private record Key(List<Class<?>> interfaces, Map<String, TargetSpec> targets) {
+    }
+
+}
@@ -0,0 +1,140 @@
+package me.pesekjak.vitrum;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profile of the window methods called by previous runs, used by
+ * {@link Vitrum#useProfile(Path)}.
+ * <p>
+ * Each line of the profile file holds binary name of the window interface, handler
+ * identifier and name with descriptor of a called window method, separated by tabs.
+ * Methods are recorded when their lazy implementation is linked, so the profile only
+ * grows; deleting the file resets it.
+ */
+final class WindowProfile {
+
+    private static final String HEADER = "# Vitrum window profile";
+
+    private final Path file;
+
+    /**
+     * Methods called by previous runs, generated eagerly.
+     */
+    private final Set<String> hot;
+
+    /**
+     * Methods called by previous runs or linked by this run.
+     */
+    private final Set<String> called = ConcurrentHashMap.newKeySet();
+
+    private WindowProfile(Path file, Set<String> hot) {
+        this.file = file;
+        this.hot = hot;
+        called.addAll(hot);
+    }
+
+    /**
+     * Loads profile from a file, the profile is empty if the file does not exist.
+     *
+     * @param file profile file
+     * @return profile
+     * @throws IOException if the file can not be read
+     */
+    static WindowProfile load(Path file) throws IOException {
+        if (!Files.exists(file)) return new WindowProfile(file, Set.of());
+        Set<String> hot = new HashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            hot.add(line.strip());
+        }
+        return new WindowProfile(file, Collections.unmodifiableSet(hot));
+    }
+
+    /**
+     * Returns key of a window method in the profile.
+     *
+     * @param clazz interface class
+     * @param handler handler identifier
+     * @param method method of the window interface
+     * @return key
+     */
+    static String key(Class<?> clazz, String handler, Method method) {
+        return clazz.getName() + '\t' + handler + '\t' + method.getName() + Type.getMethodDescriptor(method);
+    }
+
+    /**
+     * @param key key of a window method
+     * @return whether the method was called by previous runs
+     */
+    boolean isHot(String key) {
+        return hot.contains(key);
+    }
+
+    /**
+     * Records call of a window method.
+     *
+     * @param key key of the window method
+     */
+    void record(String key) {
+        called.add(key);
+    }
+
+    /**
+     * Returns windows with hot methods.
+     *
+     * @return binary names of the interfaces mapped by handler identifiers
+     */
+    Map<String, Set<String>> windows() {
+        Map<String, Set<String>> windows = new TreeMap<>();
+        for (String key : hot) {
+            String[] parts = key.split("\t", 3);
+            if (parts.length == 3) windows.computeIfAbsent(parts[1], handler -> new TreeSet<>()).add(parts[0]);
+        }
+        return windows;
+    }
+
+    /**
+     * Writes the profile into its file, unless there are no new calls.
+     *
+     * @throws IOException if the file can not be written
+     */
+    void save() throws IOException {
+        if (called.size() == hot.size()) return;
+        List<String> lines = new ArrayList<>(called);
+        Collections.sort(lines);
+        lines.addFirst(HEADER);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.write(file, lines);
+    }
+
+    /**
+     * Saves the profile, failures are only logged as it is saved on shutdown.
+     *
+     * @param profile profile to save, null if profiling is disabled
+     */
+    static void saveQuietly(@Nullable WindowProfile profile) {
+        if (profile == null) return;
+        try {
+            profile.save();
+        } catch (IOException exception) {
+            System.getLogger(Vitrum.class.getName()).log(System.Logger.Level.WARNING, "Failed to save window profile " + profile.file, exception);
+        }
+    }
+
+}
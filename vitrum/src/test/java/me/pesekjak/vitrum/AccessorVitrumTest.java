@@ -0,0 +1,76 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToIntFunction;
+
+public class AccessorVitrumTest {
+
+    private static final String SOURCE = "me/pesekjak/vitrum/TestInstance";
+
+    @Test
+    public void testGetter() throws IllegalAccessException {
+        ToIntFunction<Object> number = Vitrum.accessor(ToIntFunction.class, TargetSpec.getter(SOURCE, "number", "I"));
+
+        List<Object> instances = new ArrayList<>(List.of(new TestInstance(3, "c"), new TestInstance(1, "a"), new TestInstance(2, "b")));
+        instances.sort(Comparator.comparingInt(number));
+        assert ((TestInstance) instances.get(0)).foo.equals("a");
+        assert ((TestInstance) instances.get(2)).foo.equals("c");
+    }
+
+    @Test
+    public void testSetter() throws IllegalAccessException {
+        ObjDoubleConsumer<Object> setter = Vitrum.accessor(ObjDoubleConsumer.class, TargetSpec.setter(SOURCE, "changeMe", "D"));
+        TestInstance instance = new TestInstance();
+        setter.accept(instance, 5);
+        assert instance.changeMe == 5;
+    }
+
+    @Test
+    public void testMethod() throws IllegalAccessException {
+        ComplexCall complex = Vitrum.accessor(ComplexCall.class, TargetSpec.method(SOURCE, "complex", "(ILjava/lang/Integer;D)F"));
+        assert complex.call(new TestInstance(), (short) 1, 2, 3L) == 1;
+
+        StaticCall staticCall = Vitrum.accessor(StaticCall.class, TargetSpec.staticMethod(SOURCE, "staticMethod", "(ILjava/lang/Integer;)Z"));
+        assert staticCall.call(2, 8);
+        assert !staticCall.call(2, 2);
+    }
+
+    @Test
+    public void testConstructor() throws IllegalAccessException {
+        BiFunction<Object, Object, Object> constructor = Vitrum.accessor(BiFunction.class, TargetSpec.constructor(SOURCE, "(ILjava/lang/String;)V"));
+        TestInstance instance = (TestInstance) constructor.apply(75, "Hello");
+        assert instance.number == 75;
+        assert instance.foo.equals("Hello");
+    }
+
+    @Test
+    public void testIllegalAccessor() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.accessor(ToIntFunction.class, TargetSpec.method(SOURCE, "plusOne", "(Ljava/lang/Integer;)I")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.accessor(List.class, TargetSpec.getter(SOURCE, "number", "I")));
+
+        TargetSpec affine = new TargetSpec(SOURCE, "number", "I", false, false, Target.Action.GET_FIELD, false, 0, "main", false);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.accessor(ToIntFunction.class, affine));
+        TargetSpec cached = new TargetSpec(SOURCE, "number", "I", false, false, Target.Action.GET_FIELD, true, 0, "", false);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.accessor(ToIntFunction.class, cached));
+    }
+
+    public interface ComplexCall {
+
+        double call(Object instance, short first, int second, long third);
+
+    }
+
+    public interface StaticCall {
+
+        boolean call(int first, int second);
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package me.pesekjak.vitrum;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AffinityTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I", affinity = "tick")
+    @Target(handler = "v3", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I", affinity = "batch")
+    @Target(handler = "v4", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I", affinity = "failing")
+    CompletableFuture<Integer> plusOne(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "changeMe", descriptor = "D", action = Target.Action.SET_FIELD, affinity = "tick")
+    CompletableFuture<Void> changeDouble(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int number(Object instance, Object... arguments);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestInstance", name = "v2", descriptor = "()Ljava/lang/String;", affinity = "tick")
+    String illegal(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,77 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class AffinityVitrumTest {
+
+    @Test
+    public void testAffinity() throws Exception {
+        ExecutorService tick = Executors.newSingleThreadExecutor();
+        try {
+            Thread thread = tick.submit(Thread::currentThread).get();
+            Vitrum.useAffinity("tick", Affinity.of(thread, tick));
+            Assertions.assertThrows(IllegalStateException.class, () -> Vitrum.useAffinity("tick", Affinity.of(thread, tick)));
+            AffinityTestInterface window = Vitrum.createWindow(AffinityTestInterface.class, "v1");
+            TestInstance instance = new TestInstance();
+
+            assert window.plusOne(instance, 1).get(1, TimeUnit.SECONDS) == 2;
+            assert tick.submit(() -> window.plusOne(instance, 1).isDone()).get();
+
+            window.changeDouble(instance, 2.5).get(1, TimeUnit.SECONDS);
+            assert instance.changeMe == 2.5;
+            assert window.number(instance) == 10;
+        } finally {
+            tick.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        Vitrum.useAffinity("batch", Affinity.of(Thread.currentThread(), scheduled::add));
+        AffinityTestInterface window = Vitrum.createWindow(AffinityTestInterface.class, "v3");
+        TestInstance instance = new TestInstance();
+
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        List<CompletableFuture<Integer>> futures;
+        try {
+            futures = worker.submit(() -> {
+                List<CompletableFuture<Integer>> calls = new ArrayList<>();
+                for (int i = 0; i < 100; i++) calls.add(window.plusOne(instance, i));
+                return calls;
+            }).get();
+        } finally {
+            worker.shutdown();
+        }
+
+        assert scheduled.size() == 1;
+        assert futures.stream().noneMatch(CompletableFuture::isDone);
+        scheduled.get(0).run();
+        for (int i = 0; i < futures.size(); i++)
+            assert futures.get(i).getNow(-1) == i + 1;
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            Affinity affinity = Affinity.of(worker.submit(Thread::currentThread).get(), worker);
+            Assertions.assertThrows(IllegalStateException.class, affinity::drain);
+            Vitrum.useAffinity("failing", affinity);
+
+            AffinityTestInterface window = Vitrum.createWindow(AffinityTestInterface.class, "v4");
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> window.plusOne(null, 1).get(1, TimeUnit.SECONDS));
+            assert exception.getCause() instanceof NullPointerException;
+        } finally {
+            worker.shutdown();
+        }
+        Assertions.assertThrows(RuntimeException.class, () -> Vitrum.createWindow(AffinityTestInterface.class, "v2"));
+    }
+
+}
@@ -0,0 +1,44 @@
+package me.pesekjak.vitrum;
+
+public interface ArrayTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.INSTANCE_OF)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.INSTANCE_OF, reflective = true)
+    boolean isTestInstance(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.CHECK_CAST)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.CHECK_CAST, reflective = true)
+    Object castTestInstance(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.NEW_ARRAY)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.NEW_ARRAY, reflective = true)
+    Object newArray(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.NEW_ARRAY)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.NEW_ARRAY, reflective = true)
+    Object newIntArray(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_LENGTH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_LENGTH, reflective = true)
+    int length(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_GET)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_GET, reflective = true)
+    Object get(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_SET)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.ARRAY_SET, reflective = true)
+    void set(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.ARRAY_GET)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.ARRAY_GET, reflective = true)
+    long getInt(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.ARRAY_SET)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "I", action = Target.Action.ARRAY_SET, reflective = true)
+    void setInt(Object instance, Object... arguments);
+
+    @Target(handler = "static", source = "me/pesekjak/vitrum/TestInstance", name = "", descriptor = "", action = Target.Action.INSTANCE_OF, isStatic = true)
+    boolean illegal(Object instance, Object... arguments);
+
+}
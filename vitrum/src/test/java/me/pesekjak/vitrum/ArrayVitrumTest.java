@@ -0,0 +1,70 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+public class ArrayVitrumTest {
+
+    @Test
+    public void testTypeChecks() throws IllegalAccessException {
+        for (String handler : new String[] {"v1", "reflective"}) {
+            ArrayTestInterface window = Vitrum.createWindow(ArrayTestInterface.class, handler);
+            TestInstance instance = new TestInstance();
+            assert window.isTestInstance(instance);
+            assert !window.isTestInstance("foo");
+            assert !window.isTestInstance(null);
+            assert window.castTestInstance(instance) == instance;
+            assert window.castTestInstance(null) == null;
+            Assertions.assertThrows(ClassCastException.class, () -> window.castTestInstance("foo"));
+        }
+    }
+
+    @Test
+    public void testObjectArrays() throws IllegalAccessException {
+        for (String handler : new String[] {"v1", "reflective"}) {
+            ArrayTestInterface window = Vitrum.createWindow(ArrayTestInterface.class, handler);
+            Object array = window.newArray(null, 3);
+            assert array instanceof TestInstance[];
+            assert window.length(array) == 3;
+
+            TestInstance instance = new TestInstance();
+            window.set(array, 1, instance);
+            assert window.get(array, 1) == instance;
+            assert window.get(array, 0) == null;
+            Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> window.get(array, 3));
+        }
+    }
+
+    @Test
+    public void testPrimitiveArrays() throws IllegalAccessException {
+        for (String handler : new String[] {"v1", "reflective"}) {
+            ArrayTestInterface window = Vitrum.createWindow(ArrayTestInterface.class, handler);
+            Object array = window.newIntArray(null, 2);
+            assert array instanceof int[];
+            window.setInt(array, 0, 5);
+            assert ((int[]) array)[0] == 5;
+            assert window.getInt(array, 0) == 5L;
+        }
+    }
+
+    @Test
+    public void testAccessor() throws IllegalAccessException {
+        Predicate<Object> isInstance = Vitrum.accessor(Predicate.class,
+                new TargetSpec("me/pesekjak/vitrum/TestInstance", "", "", false, false, Target.Action.INSTANCE_OF));
+        assert isInstance.test(new TestInstance());
+        assert !isInstance.test(new Object());
+
+        IntFunction<Object> newArray = Vitrum.accessor(IntFunction.class,
+                new TargetSpec("me/pesekjak/vitrum/TestInstance", "", "", false, false, Target.Action.NEW_ARRAY));
+        assert newArray.apply(4) instanceof TestInstance[] array && array.length == 4;
+    }
+
+    @Test
+    public void testStatic() {
+        Assertions.assertThrows(RuntimeException.class, () -> Vitrum.createWindow(ArrayTestInterface.class, "static"));
+    }
+
+}
@@ -0,0 +1,20 @@
+package me.pesekjak.vitrum;
+
+public interface BoundTestInterface extends Window {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    int plusOne(Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int number(Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "changeMe", descriptor = "D", action = Target.Action.SET_FIELD)
+    void changeDouble(Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "staticMethod", descriptor = "(ILjava/lang/Integer;)Z", isStatic = true)
+    boolean staticMethod(Object... arguments);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/ReflectiveTestInstance", name = "getFoo", descriptor = "(ILjava/lang/String;)Ljava/lang/String;", reflective = true)
+    String getFoo(Object... arguments);
+
+}
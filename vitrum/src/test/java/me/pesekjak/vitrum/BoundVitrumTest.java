@@ -0,0 +1,43 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BoundVitrumTest {
+
+    @Test
+    public void testBound() throws IllegalAccessException {
+        TestInstance instance = new TestInstance(5, "Hello");
+        BoundTestInterface window = Vitrum.bindWindow(BoundTestInterface.class, "v1", instance);
+
+        assert window.plusOne(1) == 2;
+        assert window.number() == 5;
+        window.changeDouble(2.5);
+        assert instance.changeMe == 2.5;
+        assert window.staticMethod(5, 5);
+        assert window.supports("number");
+        assert !window.supports("getFoo");
+        Assertions.assertThrows(UnsupportedOperationException.class, window::getFoo);
+    }
+
+    @Test
+    public void testSeparateInstances() throws IllegalAccessException {
+        BoundTestInterface first = Vitrum.bindWindow(BoundTestInterface.class, "v1", new TestInstance(1, "first"));
+        BoundTestInterface second = Vitrum.bindWindow(BoundTestInterface.class, "v1", new TestInstance(2, "second"));
+        assert first.number() == 1;
+        assert second.number() == 2;
+    }
+
+    @Test
+    public void testReflective() throws IllegalAccessException {
+        BoundTestInterface window = Vitrum.bindWindow(BoundTestInterface.class, "v2", new ReflectiveTestInstance());
+        assert window.getFoo(1, "bar").equals("1 foo bar");
+    }
+
+    @Test
+    public void testIllegalInstance() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.bindWindow(BoundTestInterface.class, "v1", null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.bindWindow(BoundTestInterface.class, "v1", "string"));
+    }
+
+}
@@ -0,0 +1,32 @@
+package me.pesekjak.vitrum;
+
+public class CachedTestInstance {
+
+    public int calls;
+    public double ratio = 0.5;
+
+    public int hash() {
+        calls++;
+        return 42;
+    }
+
+    public String name() {
+        calls++;
+        return "name" + calls;
+    }
+
+    public long time() {
+        calls++;
+        return System.nanoTime();
+    }
+
+    public boolean flag() {
+        calls++;
+        return true;
+    }
+
+    public int plus(int value) {
+        return value + 1;
+    }
+
+}
@@ -0,0 +1,26 @@
+package me.pesekjak.vitrum;
+
+public interface CachedTestInterface extends Window {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "hash", descriptor = "()I", cached = true)
+    int hash(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "name", descriptor = "()Ljava/lang/String;", cached = true)
+    String name(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "name", descriptor = "()Ljava/lang/String;")
+    String uncachedName(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "time", descriptor = "()J", cached = true, cacheTtl = 1)
+    long time(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "flag", descriptor = "()Z", cached = true)
+    Object flag(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/CachedTestInstance", name = "ratio", descriptor = "D", action = Target.Action.GET_FIELD, cached = true)
+    double ratio(Object instance, Object... arguments);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/CachedTestInstance", name = "plus", descriptor = "(I)I", cached = true)
+    int plus(Object instance, Object... arguments);
+
+}
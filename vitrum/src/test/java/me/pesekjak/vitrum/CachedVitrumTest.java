@@ -0,0 +1,82 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CachedVitrumTest {
+
+    @Test
+    public void testCached() throws IllegalAccessException {
+        CachedTestInterface window = Vitrum.createWindow(CachedTestInterface.class, "v1");
+        CachedTestInstance instance = new CachedTestInstance();
+
+        assert window.hash(instance) == 42;
+        assert window.hash(instance) == 42;
+        assert instance.calls == 1;
+
+        String name = window.name(instance);
+        assert window.name(instance) == name;
+        assert !window.uncachedName(instance).equals(name);
+        assert window.flag(instance).equals(true);
+        assert window.flag(instance).equals(true);
+        assert instance.calls == 4;
+
+        CachedTestInstance other = new CachedTestInstance();
+        assert window.hash(other) == 42;
+        assert other.calls == 1;
+    }
+
+    @Test
+    public void testPrimitives() throws IllegalAccessException {
+        CachedTestInterface window = Vitrum.createWindow(CachedTestInterface.class, "v1");
+        CachedTestInstance instance = new CachedTestInstance();
+        assert window.ratio(instance) == 0.5;
+        instance.ratio = 1;
+        assert window.ratio(instance) == 0.5;
+    }
+
+    @Test
+    public void testInvalidate() throws IllegalAccessException {
+        CachedTestInterface window = Vitrum.createWindow(CachedTestInterface.class, "v1");
+        CachedTestInstance instance = new CachedTestInstance();
+        String name = window.name(instance);
+        window.invalidate(instance);
+        assert !window.name(instance).equals(name);
+        assert instance.calls == 2;
+
+        // caches are shared by windows of the same class
+        Vitrum.createWindow(CachedTestInterface.class, "v1").invalidate(instance);
+        window.name(instance);
+        assert instance.calls == 3;
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        CachedTestInterface window = Vitrum.createWindow(CachedTestInterface.class, "v1");
+        CachedTestInstance instance = new CachedTestInstance();
+        long time = window.time(instance);
+        Thread.sleep(5);
+        assert window.time(instance) != time;
+        assert instance.calls == 2;
+    }
+
+    @Test
+    public void testManyInstances() throws IllegalAccessException {
+        CachedTestInterface window = Vitrum.createWindow(CachedTestInterface.class, "v1");
+        CachedTestInstance[] instances = new CachedTestInstance[1000];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new CachedTestInstance();
+            window.hash(instances[i]);
+        }
+        for (CachedTestInstance instance : instances) {
+            assert window.hash(instance) == 42;
+            assert instance.calls == 1;
+        }
+    }
+
+    @Test
+    public void testIllegalCached() {
+        Assertions.assertThrows(RuntimeException.class, () -> Vitrum.createWindow(CachedTestInterface.class, "v2"));
+    }
+
+}
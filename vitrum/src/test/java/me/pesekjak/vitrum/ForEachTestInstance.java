@@ -0,0 +1,47 @@
+package me.pesekjak.vitrum;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+public class ForEachTestInstance {
+
+    public static long[] longs = {1, 2, 3};
+
+    public int[] ints = {1, 2, 3, 4};
+    public byte[] bytes = {-1, 1};
+    public String[] names = {"a", "b"};
+    public List<String> list = new ArrayList<>(List.of("x", "y", "z"));
+    public Map<String, Integer> map = new LinkedHashMap<>(Map.of("one", 1));
+    public IntBag bag = new IntBag(5, 6);
+
+    private float[] hidden = {0.5F, 1.5F};
+
+    /**
+     * Collection with both boxing and primitive iteration.
+     */
+    public static class IntBag implements Iterable<Integer> {
+
+        private final int[] values;
+        public int boxed;
+
+        public IntBag(int... values) {
+            this.values = values;
+        }
+
+        public void forEach(IntConsumer consumer) {
+            for (int value : values) consumer.accept(value);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            boxed++;
+            return new ArrayList<Integer>().iterator();
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package me.pesekjak.vitrum;
+
+public interface ForEachTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "ints", descriptor = "[I", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "ints", descriptor = "[I", action = Target.Action.FOR_EACH, reflective = true)
+    void ints(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "bytes", descriptor = "[B", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "bytes", descriptor = "[B", action = Target.Action.FOR_EACH, reflective = true)
+    void bytes(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "longs", descriptor = "[J", action = Target.Action.FOR_EACH, isStatic = true)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "longs", descriptor = "[J", action = Target.Action.FOR_EACH, isStatic = true, reflective = true)
+    void longs(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "names", descriptor = "[Ljava/lang/String;", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "names", descriptor = "[Ljava/lang/String;", action = Target.Action.FOR_EACH, reflective = true)
+    void names(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "list", descriptor = "Ljava/util/List;", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "list", descriptor = "Ljava/util/List;", action = Target.Action.FOR_EACH, reflective = true)
+    void list(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "map", descriptor = "Ljava/util/Map;", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "map", descriptor = "Ljava/util/Map;", action = Target.Action.FOR_EACH, reflective = true)
+    void map(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "bag", descriptor = "Lme/pesekjak/vitrum/ForEachTestInstance$IntBag;", action = Target.Action.FOR_EACH)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "bag", descriptor = "Lme/pesekjak/vitrum/ForEachTestInstance$IntBag;", action = Target.Action.FOR_EACH, reflective = true)
+    void bag(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "hidden", descriptor = "[F", action = Target.Action.FOR_EACH, nestmate = true)
+    @Target(handler = "reflective", source = "me/pesekjak/vitrum/ForEachTestInstance", name = "hidden", descriptor = "[F", action = Target.Action.FOR_EACH, reflective = true)
+    void hidden(Object instance, Object... arguments);
+
+}
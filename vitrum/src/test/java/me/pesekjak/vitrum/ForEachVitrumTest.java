@@ -0,0 +1,67 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+public class ForEachVitrumTest {
+
+    @Test
+    public void testForEachWindow() throws IllegalAccessException {
+        test(Vitrum.createWindow(ForEachTestInterface.class, "v1"));
+    }
+
+    @Test
+    public void testReflectiveForEachWindow() throws IllegalAccessException {
+        test(Vitrum.createWindow(ForEachTestInterface.class, "reflective"));
+    }
+
+    private static void test(ForEachTestInterface window) {
+        ForEachTestInstance instance = new ForEachTestInstance();
+
+        int[] sum = new int[1];
+        window.ints(instance, (IntConsumer) value -> sum[0] += value);
+        assert sum[0] == 10;
+        window.bytes(instance, (IntConsumer) value -> sum[0] += value);
+        assert sum[0] == 10;
+
+        long[] longs = new long[1];
+        window.longs(null, (LongConsumer) value -> longs[0] += value);
+        assert longs[0] == 6;
+
+        double[] floats = new double[1];
+        window.hidden(instance, (DoubleConsumer) value -> floats[0] += value);
+        assert floats[0] == 2;
+
+        List<Object> elements = new ArrayList<>();
+        window.names(instance, (Consumer<Object>) elements::add);
+        window.list(instance, (Consumer<Object>) elements::add);
+        assert elements.equals(List.of("a", "b", "x", "y", "z"));
+
+        List<Object> entries = new ArrayList<>();
+        window.map(instance, (BiConsumer<Object, Object>) (key, value) -> entries.add(Map.entry(key, value)));
+        assert entries.equals(List.of(Map.entry("one", 1)));
+
+        int[] bag = new int[1];
+        window.bag(instance, (IntConsumer) value -> bag[0] += value);
+        assert bag[0] == 11;
+        assert instance.bag.boxed == 0;
+    }
+
+    @Test
+    public void testForEachAccessor() throws IllegalAccessException {
+        TargetSpec target = new TargetSpec("me/pesekjak/vitrum/ForEachTestInstance", "ints", "[I", false, false, Target.Action.FOR_EACH);
+        BiConsumer<Object, IntConsumer> forEach = Vitrum.accessor(BiConsumer.class, target);
+        int[] count = new int[1];
+        forEach.accept(new ForEachTestInstance(), value -> count[0]++);
+        assert count[0] == 4;
+    }
+
+}
@@ -0,0 +1,26 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class InliningAuditTest {
+
+    @Test
+    public void testCodeSizes() {
+        Map<String, Integer> sizes = InliningAudit.codeSizes(Vitrum.generateWindow(TestInterface.class, "v1").getLast());
+        assert sizes.get("<init>()V") == 5;
+        assert sizes.containsKey("supports(Ljava/lang/String;)Z");
+        assert sizes.keySet().stream().anyMatch(method -> method.startsWith("complex("));
+    }
+
+    @Test
+    public void testWindowMethodsInlined() {
+        for (Class<?> window : new Class<?>[] {TestInterface.class, ArrayTestInterface.class, UnsupportedTestInterface.class}) {
+            InliningAudit.codeSizes(Vitrum.generateWindow(window, "v1").getLast()).forEach((method, size) -> {
+                assert size <= InliningAudit.MAX_INLINE_SIZE : method + " of " + window.getSimpleName() + " has " + size + " bytes";
+            });
+        }
+    }
+
+}
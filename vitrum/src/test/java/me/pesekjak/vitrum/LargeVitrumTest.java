@@ -0,0 +1,102 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.*;
+
+public class LargeVitrumTest {
+
+    private static final int METHODS = 10_000;
+
+    /**
+     * Default value of HotSpot {@code HugeMethodLimit}, larger methods are never compiled.
+     */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    @Test
+    public void testLargeWindow() throws Exception {
+        Class<?> window = defineInterface("LargeTestInterface", METHODS, defineTarget());
+        List<byte[]> classes = Vitrum.generateWindow(window, "v1");
+        assert classes.size() == (METHODS + Vitrum.MAX_PART_METHODS - 1) / Vitrum.MAX_PART_METHODS + 1;
+        for (byte[] bytes : classes) {
+            InliningAudit.codeSizes(bytes).forEach((method, size) -> {
+                assert size < HUGE_METHOD_LIMIT : method + " has " + size + " bytes";
+            });
+        }
+        assert InliningAudit.codeSizes(classes.getLast()).get("supports(Ljava/lang/String;)Z") <= InliningAudit.MAX_INLINE_SIZE;
+
+        Object instance = Vitrum.createWindow(window, "v1");
+        for (int i = 0; i < METHODS; i++) {
+            Method method = window.getMethod("m" + i, Object.class, Object[].class);
+            assert (int) method.invoke(instance, null, new Object[0]) == i;
+        }
+        assert ((Window) instance).supports("m0");
+        assert ((Window) instance).supports("m" + (METHODS - 1));
+        assert !((Window) instance).supports("m" + METHODS);
+    }
+
+    @Test
+    public void testSupportsSize() throws Exception {
+        Class<?> window = defineInterface("LargeTestSupportsInterface", Vitrum.MAX_PART_METHODS, "me/pesekjak/vitrum/LargeTestTarget");
+        List<byte[]> classes = Vitrum.generateWindow(window, "v1");
+        assert classes.size() == 1;
+        assert InliningAudit.codeSizes(classes.getLast()).get("supports(Ljava/lang/String;)Z") <= InliningAudit.MAX_INLINE_SIZE;
+
+        Window instance = (Window) Vitrum.createWindow(window, "v1");
+        assert instance.supports("m0");
+        assert instance.supports("m" + (Vitrum.MAX_PART_METHODS - 1));
+        assert !instance.supports("m" + Vitrum.MAX_PART_METHODS);
+    }
+
+    @Test
+    public void testSmallWindow() {
+        assert Vitrum.generateWindow(TestInterface.class, "v1").size() == 1;
+    }
+
+    /**
+     * Defines class with static methods returning their index.
+     *
+     * @return internal name of the class
+     */
+    private static String defineTarget() throws IllegalAccessException {
+        String name = "me/pesekjak/vitrum/LargeTestTarget";
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V16, ACC_PUBLIC | ACC_SUPER, name, null, "java/lang/Object", null);
+        for (int i = 0; i < METHODS; i++) {
+            MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "m" + i, "()I", null, null);
+            visitor.visitCode();
+            visitor.visitLdcInsn(i);
+            visitor.visitInsn(IRETURN);
+            visitor.visitMaxs(0, 0);
+            visitor.visitEnd();
+        }
+        writer.visitEnd();
+        MethodHandles.lookup().defineClass(writer.toByteArray());
+        return name;
+    }
+
+    /**
+     * Defines window interface with a distinct static target for each method.
+     *
+     * @param name simple name of the interface
+     * @param methods number of the methods
+     * @param target internal name of the target class
+     * @return interface class
+     */
+    private static Class<?> defineInterface(String name, int methods, String target) throws IllegalAccessException {
+        return TestInterfaces.define(name, methods, "m", Type.INT_TYPE, List.of("v1"), (method, handler, annotation) -> {
+            annotation.visit("source", target);
+            annotation.visit("name", "m" + method);
+            annotation.visit("descriptor", "()I");
+            annotation.visit("isStatic", true);
+        });
+    }
+
+}
@@ -0,0 +1,141 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class LeanVitrumTest {
+
+    private static final int INTERFACES = 100;
+    private static final int HANDLERS = 10;
+    private static final int METHODS = 5;
+    private static final List<String> HANDLER_NAMES = IntStream.range(0, HANDLERS).mapToObj(handler -> "v" + handler).toList();
+
+    @Test
+    public void testPackedWindows() throws IllegalAccessException {
+        Vitrum.packWindows(List.of(
+                PackedTestInterface.class,
+                PackedTestSecondInterface.class,
+                PackedTestWiderInterface.class,
+                PackedTestDefaultInterface.class
+        ), "v1");
+
+        PackedTestInterface window = Vitrum.createWindow(PackedTestInterface.class, "v1");
+        PackedTestSecondInterface second = Vitrum.createWindow(PackedTestSecondInterface.class, "v1");
+        assert window.getClass() == second.getClass();
+
+        TestInstance instance = new TestInstance();
+        assert window.plusOne(instance, 0) == 1;
+        assert window.v(instance).equals("v1");
+        assert second.plusOne(instance, 1) == 2;
+        assert second.v(instance).equals("v1");
+    }
+
+    @Test
+    public void testPackedSupports() throws IllegalAccessException {
+        Vitrum.packWindows(List.of(PackedTestInterface.class, PackedTestWiderInterface.class), "v1");
+
+        PackedTestInterface window = Vitrum.createWindow(PackedTestInterface.class, "v1");
+        PackedTestWiderInterface wider = Vitrum.createWindow(PackedTestWiderInterface.class, "v1");
+        assert window.getClass() != wider.getClass();
+        assert !((Window) window).supports("numberField");
+        assert ((Window) wider).supports("numberField");
+        assert wider.numberField(new TestInstance()) == 10;
+    }
+
+    @Test
+    public void testPackedDefaults() throws IllegalAccessException {
+        Vitrum.packWindows(List.of(PackedTestInterface.class, PackedTestDefaultInterface.class), "v1");
+
+        PackedTestInterface window = Vitrum.createWindow(PackedTestInterface.class, "v1");
+        PackedTestDefaultInterface withDefault = Vitrum.createWindow(PackedTestDefaultInterface.class, "v1");
+        assert window.getClass() != withDefault.getClass();
+        assert withDefault.unsupported(new TestInstance()).equals("default");
+    }
+
+    @Test
+    public void testSharedHandlers() throws Exception {
+        List<Class<?>> interfaces = defineInterfaces("Shared");
+        for (int handler = 0; handler < HANDLERS; handler++)
+            Vitrum.packWindows(interfaces, "v" + handler);
+
+        TestInstance instance = new TestInstance();
+        Object even = Vitrum.createWindow(interfaces.get(0), "v0");
+        Object odd = Vitrum.createWindow(interfaces.get(0), "v1");
+        assert even.getClass() == Vitrum.createWindow(interfaces.get(0), "v2").getClass();
+        assert even.getClass() != odd.getClass();
+        // interfaces supporting different method names are never packed together
+        assert even.getClass() != Vitrum.createWindow(interfaces.get(1), "v0").getClass();
+        assert interfaces.get(0).getMethod("method0_0", Object.class, Object[].class).invoke(even, instance, new Object[0]).equals("v1");
+        assert interfaces.get(0).getMethod("method0_0", Object.class, Object[].class).invoke(odd, instance, new Object[0]).equals("v2");
+    }
+
+    @Test
+    public void testFootprint() throws Exception {
+        Vitrum.createWindow(PackedTestInterface.class, "v2");
+        List<Class<?>> classic = defineInterfaces("Classic");
+        List<Class<?>> lean = defineInterfaces("Lean");
+
+        Footprint before = Footprint.measure(() -> {
+            for (Class<?> clazz : classic) {
+                for (int handler = 0; handler < HANDLERS; handler++)
+                    Vitrum.createWindow(clazz, "v" + handler);
+            }
+        });
+        Footprint after = Footprint.measure(() -> {
+            for (int handler = 0; handler < HANDLERS; handler++) {
+                Vitrum.packWindows(lean, "v" + handler);
+                for (Class<?> clazz : lean)
+                    Vitrum.createWindow(clazz, "v" + handler);
+            }
+        });
+
+        assert after.classes() < before.classes();
+        assert after.metaspace() < before.metaspace();
+    }
+
+    private static List<Class<?>> defineInterfaces(String prefix) throws IllegalAccessException {
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (int i = 0; i < INTERFACES; i++)
+            interfaces.add(defineInterface(prefix + "FootprintInterface" + i, i));
+        return interfaces;
+    }
+
+    private static Class<?> defineInterface(String name, int index) throws IllegalAccessException {
+        return TestInterfaces.define(name, METHODS, "method" + index + "_", Type.getType(String.class), HANDLER_NAMES, (method, handler, target) -> {
+            target.visit("source", Type.getInternalName(TestInstance.class));
+            target.visit("name", handler % 2 == 0 ? "v1" : "v2");
+            target.visit("descriptor", "()Ljava/lang/String;");
+        });
+    }
+
+    private record Footprint(long classes, long metaspace) {
+
+        static Footprint measure(Task task) throws Exception {
+            long classes = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            long metaspace = usedMetaspace();
+            task.run();
+            return new Footprint(
+                    ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - classes,
+                    usedMetaspace() - metaspace
+            );
+        }
+
+        static long usedMetaspace() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getName().equals("Metaspace"))
+                    .mapToLong(pool -> pool.getUsage().getUsed())
+                    .sum();
+        }
+
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+}
@@ -0,0 +1,17 @@
+package me.pesekjak.vitrum;
+
+public interface MappedTestInterface {
+
+    @Target(handler = "mapped", source = "net/example/Counter", name = "<init>", descriptor = "(ILjava/lang/String;)V", action = Target.Action.CALL_CONSTRUCTOR)
+    Object construct(Object instance, Object... arguments);
+
+    @Target(handler = "mapped", source = "net/example/Counter", name = "increment", descriptor = "(Ljava/lang/Integer;)I")
+    int increment(Object instance, Object... arguments);
+
+    @Target(handler = "mapped", source = "net/example/Counter", name = "count", descriptor = "I", action = Target.Action.GET_FIELD)
+    int count(Object instance, Object... arguments);
+
+    @Target(handler = "mapped", source = "net/example/Counter", name = "label", descriptor = "Ljava/lang/String;", action = Target.Action.GET_FIELD)
+    String label(Object instance, Object... arguments);
+
+}
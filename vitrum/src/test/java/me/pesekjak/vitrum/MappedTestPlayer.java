@@ -0,0 +1,4 @@
+package me.pesekjak.vitrum;
+
+public class MappedTestPlayer extends TestInstance {
+}
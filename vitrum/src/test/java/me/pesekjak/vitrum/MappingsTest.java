@@ -0,0 +1,78 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappingsTest {
+
+    private static final String MAPPINGS = """
+            # compiler: R8
+            net.example.Unrelated -> a:
+                int count -> a
+            net.example.Counter -> me.pesekjak.vitrum.TestInstance:
+                int count -> number
+                java.lang.String label -> foo
+                1:3:void <init>(int,java.lang.String) -> <init>
+                4:4:int increment(java.lang.Integer) -> plusOne
+                5:5:int increment(int,int):10:10 -> b
+            net.example.Counter$Inner -> b$a:
+            net.example.Player -> me.pesekjak.vitrum.MappedTestPlayer:
+            """;
+
+    @Test
+    public void testLookup() {
+        Mappings mappings = Mappings.of(MAPPINGS.getBytes());
+        assert mappings.mapClass("net/example/Counter").equals("me/pesekjak/vitrum/TestInstance");
+        assert mappings.mapClass("net/example/Counter$Inner").equals("b$a");
+        assert mappings.mapClass("net/example/Missing") == null;
+
+        assert mappings.mapField("net/example/Counter", "count").equals("number");
+        assert mappings.mapField("net/example/Unrelated", "count").equals("a");
+        assert mappings.mapField("net/example/Counter", "increment") == null;
+
+        assert mappings.mapMethod("net/example/Counter", "increment", "(Ljava/lang/Integer;)I").equals("plusOne");
+        assert mappings.mapMethod("net/example/Counter", "increment", "(II)I").equals("b");
+        assert mappings.mapMethod("net/example/Counter", "increment", "(I)I") == null;
+
+        assert mappings.mapDescriptor("(Lnet/example/Counter;[Lnet/example/Unrelated;I)Ljava/lang/String;")
+                .equals("(Lme/pesekjak/vitrum/TestInstance;[La;I)Ljava/lang/String;");
+    }
+
+    @Test
+    public void testInheritedMembers() {
+        Mappings mappings = Mappings.of(MAPPINGS.getBytes());
+        TargetSpec method = mappings.remap(TargetSpec.method("net/example/Player", "increment", "(Ljava/lang/Integer;)I"));
+        assert method.source().equals("me/pesekjak/vitrum/MappedTestPlayer");
+        assert method.name().equals("plusOne");
+
+        TargetSpec field = mappings.remap(new TargetSpec("net/example/Player", "count", "I", false, false, Target.Action.GET_FIELD));
+        assert field.name().equals("number");
+
+        // members of classes missing in the mappings keep their names
+        TargetSpec object = mappings.remap(TargetSpec.method("net/example/Player", "hashCode", "()I"));
+        assert object.name().equals("hashCode");
+
+        Assertions.assertThrows(RuntimeException.class,
+                () -> mappings.remap(TargetSpec.method("net/example/Player", "missing", "()V")));
+    }
+
+    @Test
+    public void testMappedWindow() throws IOException, IllegalAccessException {
+        Path file = Files.createTempFile("vitrum", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, MAPPINGS.replace("\n", "\r\n"));
+        Vitrum.useMappings("mapped", Mappings.load(file));
+
+        MappedTestInterface window = Vitrum.createWindow(MappedTestInterface.class, "mapped");
+        Object instance = window.construct(null, 5, "Hello");
+        assert instance instanceof TestInstance;
+        assert window.count(instance) == 5;
+        assert window.label(instance).equals("Hello");
+        assert window.increment(instance, 1) == 2;
+    }
+
+}
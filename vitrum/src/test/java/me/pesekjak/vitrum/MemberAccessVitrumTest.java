@@ -0,0 +1,81 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MemberAccessVitrumTest {
+
+    private static final String SOURCE = "me/pesekjak/vitrum/TestInstance";
+
+    @Test
+    public void testIndexOf() throws IllegalAccessException {
+        MemberAccess access = Vitrum.memberAccess(SOURCE);
+        for (int i = 0; i < access.members().size(); i++)
+            assert access.indexOf(access.members().get(i)) == i;
+        assert access.indexOf("plusOne") == access.indexOf("plusOne(Ljava/lang/Integer;)I");
+        assert access.indexOf("foo") != access.indexOf("foo()V");
+        assert access.indexOf("missing") == -1;
+        assert access.indexOf("hashCode()I") == -1;
+        assert Vitrum.memberAccess(SOURCE) == access;
+    }
+
+    @Test
+    public void testFields() throws IllegalAccessException {
+        MemberAccess access = Vitrum.memberAccess(SOURCE);
+        TestInstance instance = new TestInstance(5, "foo");
+
+        assert access.getInt(instance, access.indexOf("number")) == 5;
+        assert access.get(instance, access.indexOf("number")).equals(5);
+        assert access.get(instance, access.indexOf("foo")).equals("foo");
+        assert access.get(null, access.indexOf("staticString")).equals("Hello World");
+
+        access.set(instance, access.indexOf("changeMe"), 2.5);
+        assert instance.changeMe == 2.5;
+        access.setInt(instance, access.indexOf("number"), 7);
+        assert instance.number == 7;
+        access.set(instance, access.indexOf("foo"), "bar");
+        assert instance.foo.equals("bar");
+    }
+
+    @Test
+    public void testMethods() throws IllegalAccessException {
+        MemberAccess access = Vitrum.memberAccess(SOURCE);
+        TestInstance instance = new TestInstance();
+
+        assert access.invoke(instance, access.indexOf("plusOne"), 1).equals(2);
+        assert access.invoke(instance, access.indexOf("v2")).equals("v2");
+        assert access.invoke(instance, access.indexOf("foo()V")) == null;
+        assert access.invoke(null, access.indexOf("staticMethod"), 2, 8).equals(true);
+        assert access.invoke(instance, access.indexOf("complex"), 1, 2, 3.0).equals(1f);
+    }
+
+    @Test
+    public void testIllegalAccess() throws IllegalAccessException {
+        MemberAccess access = Vitrum.memberAccess(SOURCE);
+        TestInstance instance = new TestInstance();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> access.getInt(instance, access.indexOf("foo")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> access.set(instance, access.indexOf("staticString"), ""));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> access.invoke(instance, access.indexOf("number")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> access.get(instance, access.indexOf("v1")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> access.get(instance, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.memberAccess("me/pesekjak/vitrum/Missing"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.memberAccess("me/pesekjak/vitrum/ConverterVisitor"));
+    }
+
+    @Test
+    public void testPerfectTableSize() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) names.add("member" + i);
+        MemberAccessGenerator.PerfectHash hash = MemberAccessGenerator.perfectHash(names);
+        assert hash != null;
+        assert hash.size() >= names.size();
+        assert names.stream().map(name -> hash.slot(name.hashCode())).distinct().count() == names.size();
+        assert MemberAccessGenerator.perfectHash(List.of()) == null;
+        assert MemberAccessGenerator.perfectHash(List.of("a")) != null;
+    }
+
+}
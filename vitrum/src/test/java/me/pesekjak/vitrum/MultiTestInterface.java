@@ -0,0 +1,20 @@
+package me.pesekjak.vitrum;
+
+public interface MultiTestInterface extends Window {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestInstance", name = "v2", descriptor = "()Ljava/lang/String;")
+    @Target(handler = "v3", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    String v(int handler, Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    @Target(handler = "v3", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int number(int handler, Object instance, Object... arguments);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/ReflectiveTestInstance", name = "bar", descriptor = "Ljava/lang/String;", action = Target.Action.GET_FIELD, reflective = true)
+    String bar(int handler, Object instance, Object... arguments);
+
+    @Unsupported(value = Unsupported.Mode.RETURN_DEFAULT, defaultValue = "missing")
+    String missing(int handler, Object instance, Object... arguments);
+
+}
@@ -0,0 +1,42 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MultiVitrumTest {
+
+    private static final Handlers HANDLERS = Handlers.of("v1", "v2", "v3");
+
+    @Test
+    public void testDispatch() throws IllegalAccessException {
+        MultiTestInterface window = Vitrum.createWindow(MultiTestInterface.class, HANDLERS);
+        TestInstance instance = new TestInstance(5, "Hello");
+
+        assert window.v(HANDLERS.indexOf("v1"), instance).equals("v1");
+        assert window.v(HANDLERS.indexOf("v2"), instance).equals("v2");
+        assert window.v(HANDLERS.indexOf("v3"), instance).equals("v1");
+        assert window.number(0, instance, 1) == 2;
+        assert window.number(2, instance) == 5;
+        assert window.bar(1, new ReflectiveTestInstance()).equals("bar");
+        assert window.missing(0, null).equals("missing");
+    }
+
+    @Test
+    public void testUnsupported() throws IllegalAccessException {
+        MultiTestInterface window = Vitrum.createWindow(MultiTestInterface.class, HANDLERS);
+        assert window.supports("number");
+        assert !window.supports("missing");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> window.number(1, new TestInstance()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.v(3, new TestInstance()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> window.v(-1, new TestInstance()));
+    }
+
+    @Test
+    public void testSharedClass() throws IllegalAccessException {
+        MultiTestInterface first = Vitrum.createWindow(MultiTestInterface.class, HANDLERS);
+        MultiTestInterface second = Vitrum.createWindow(MultiTestInterface.class, Handlers.of("v1", "v2", "v3"));
+        assert first.getClass() == second.getClass();
+        assert first.getClass() != Vitrum.createWindow(MultiTestInterface.class, Handlers.of("v2", "v1")).getClass();
+    }
+
+}
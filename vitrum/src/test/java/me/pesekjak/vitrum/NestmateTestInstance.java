@@ -0,0 +1,23 @@
+package me.pesekjak.vitrum;
+
+class NestmateTestInstance {
+
+    private static int created;
+
+    private String bar;
+    private long count;
+
+    private NestmateTestInstance(String bar) {
+        this.bar = bar;
+        created++;
+    }
+
+    private String getFoo(int value, String second) {
+        return value + " foo " + second;
+    }
+
+    private void increment(long amount) {
+        count += amount;
+    }
+
+}
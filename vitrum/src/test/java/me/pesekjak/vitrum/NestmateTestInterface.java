@@ -0,0 +1,26 @@
+package me.pesekjak.vitrum;
+
+public interface NestmateTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "<init>", descriptor = "(Ljava/lang/String;)V", action = Target.Action.CALL_CONSTRUCTOR, nestmate = true)
+    Object construct(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "bar", descriptor = "Ljava/lang/String;", action = Target.Action.GET_FIELD, nestmate = true)
+    String getBar(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "bar", descriptor = "Ljava/lang/String;", action = Target.Action.SET_FIELD, nestmate = true)
+    void setBar(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "getFoo", descriptor = "(ILjava/lang/String;)Ljava/lang/String;", nestmate = true)
+    String getFoo(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "increment", descriptor = "(J)V", nestmate = true)
+    void increment(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "count", descriptor = "J", action = Target.Action.GET_FIELD, nestmate = true)
+    long getCount(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/NestmateTestInstance", name = "created", descriptor = "I", action = Target.Action.GET_FIELD, isStatic = true, nestmate = true)
+    int getCreated(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,46 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+public class NestmateVitrumTest {
+
+    private static final String SOURCE = "me/pesekjak/vitrum/NestmateTestInstance";
+
+    @Test
+    public void testNestmateWindow() throws IllegalAccessException {
+        NestmateTestInterface window = Vitrum.createWindow(NestmateTestInterface.class, "v1");
+        int created = window.getCreated(null);
+        Object instance = window.construct(null, "Hello");
+        assert instance instanceof NestmateTestInstance;
+        assert window.getCreated(null) == created + 1;
+
+        assert window.getBar(instance).equals("Hello");
+        window.setBar(instance, "Goodbye");
+        assert window.getBar(instance).equals("Goodbye");
+
+        assert window.getFoo(instance, 10, "World").equals("10 foo World");
+
+        window.increment(instance, 5L);
+        window.increment(instance, 2);
+        assert window.getCount(instance) == 7;
+    }
+
+    @Test
+    public void testNestmateAccessor() throws IllegalAccessException {
+        TargetSpec bar = new TargetSpec(SOURCE, "bar", "Ljava/lang/String;", false, false, Target.Action.GET_FIELD, false, 0, "", true);
+        TargetSpec count = new TargetSpec(SOURCE, "count", "J", false, true, Target.Action.GET_FIELD, false, 0, "", true);
+
+        NestmateTestInterface window = Vitrum.createWindow(NestmateTestInterface.class, "v1");
+        Object instance = window.construct(null, "Hello");
+        window.increment(instance, 3);
+
+        Function<Object, String> getBar = Vitrum.accessor(Function.class, bar);
+        assert getBar.apply(instance).equals("Hello");
+        ToLongFunction<Object> getCount = Vitrum.accessor(ToLongFunction.class, count);
+        assert getCount.applyAsLong(instance) == 3;
+    }
+
+}
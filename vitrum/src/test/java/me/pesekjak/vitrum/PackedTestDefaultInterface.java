@@ -0,0 +1,15 @@
+package me.pesekjak.vitrum;
+
+public interface PackedTestDefaultInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    int plusOne(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    String v(Object instance, Object... arguments);
+
+    default String unsupported(Object instance, Object... arguments) {
+        return "default";
+    }
+
+}
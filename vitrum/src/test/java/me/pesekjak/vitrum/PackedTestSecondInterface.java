@@ -0,0 +1,14 @@
+package me.pesekjak.vitrum;
+
+public interface PackedTestSecondInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestInstance", name = "v2", descriptor = "()Ljava/lang/String;")
+    String v(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    int plusOne(Object instance, Object... arguments);
+
+    String other(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,14 @@
+package me.pesekjak.vitrum;
+
+public interface PackedTestWiderInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    int plusOne(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    String v(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int numberField(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,58 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class PreloadVitrumTest {
+
+    @Test
+    public void testPreload() throws IllegalAccessException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Vitrum.preload(List.of(TestInterface.class, ReflectiveTestInterface.class, UnsupportedTestInterface.class), "v2", executor).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        TestInterface window = Vitrum.createWindow(TestInterface.class, "v2");
+        assert window.v(new TestInstance()).equals("v2");
+        UnsupportedTestInterface unsupported = Vitrum.createWindow(UnsupportedTestInterface.class, "v2");
+        assert unsupported.supports("foo");
+    }
+
+    @Test
+    public void testPreloadFailure() {
+        CompletableFuture<Void> future = Vitrum.preload(List.of(IllegalTestInterface.class), "v1", Runnable::run);
+        assert future.isCompletedExceptionally();
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<TestInterface>> windows = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                windows.add(executor.submit(() -> {
+                    start.await();
+                    return Vitrum.createWindow(TestInterface.class, "concurrent");
+                }));
+            }
+            start.countDown();
+            for (Future<TestInterface> window : windows)
+                assert window.get().getClass() == windows.get(0).get().getClass();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public interface IllegalTestInterface {
+
+        String illegal(Object instance);
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package me.pesekjak.vitrum;
+
+public interface ProfileTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int getNumber(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "foo", descriptor = "Ljava/lang/String;", action = Target.Action.GET_FIELD)
+    String getFoo(Object instance, Object... arguments);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "plusOne", descriptor = "(Ljava/lang/Integer;)I")
+    int plusOne(Object instance, Object... arguments);
+
+    String unsupported(Object instance, Object... arguments);
+
+}
@@ -0,0 +1,59 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class ProfileVitrumTest {
+
+    @Test
+    public void testProfile() throws Exception {
+        Path file = Files.createTempFile("vitrum", ".profile");
+        Method plusOne = ProfileTestInterface.class.getMethod("plusOne", Object.class, Object[].class);
+        Method getNumber = ProfileTestInterface.class.getMethod("getNumber", Object.class, Object[].class);
+        String hot = WindowProfile.key(ProfileTestInterface.class, "v1", plusOne);
+        String called = WindowProfile.key(ProfileTestInterface.class, "v1", getNumber);
+        assert !isLazy(Vitrum.generateWindow(ProfileTestInterface.class, "v1").getLast());
+        Files.write(file, List.of(hot));
+
+        try {
+            Vitrum.useProfile(file);
+
+            byte[] bytes = Vitrum.generateWindow(ProfileTestInterface.class, "v1").getLast();
+            assert isLazy(bytes);
+            Map<String, Integer> sizes = InliningAudit.codeSizes(bytes);
+            int lazy = sizes.get("getNumber(Ljava/lang/Object;[Ljava/lang/Object;)I");
+            assert sizes.get("getFoo(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/String;") == lazy;
+            assert sizes.get("plusOne(Ljava/lang/Object;[Ljava/lang/Object;)I") > lazy;
+
+            ProfileTestInterface window = Vitrum.createWindow(ProfileTestInterface.class, "v1");
+            TestInstance instance = new TestInstance();
+            assert window.plusOne(instance, 1) == 2;
+            assert window.getNumber(instance) == 10;
+            instance.number = 11;
+            assert window.getNumber(instance) == 11;
+            assert ((Window) window).supports("getFoo");
+            assert !((Window) window).supports("unsupported");
+
+            Vitrum.useProfile(file);
+            List<String> lines = Files.readAllLines(file);
+            assert lines.contains(hot) && lines.contains(called);
+            assert lines.stream().noneMatch(line -> line.contains("getFoo"));
+            assert Vitrum.getProfile().isHot(called);
+        } finally {
+            Vitrum.useProfile(null);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean isLazy(byte[] window) {
+        return new String(window, StandardCharsets.ISO_8859_1).contains(Type.getInternalName(LazyTarget.class));
+    }
+
+}
@@ -0,0 +1,14 @@
+package me.pesekjak.vitrum;
+
+public interface ReverseTestInterface {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestListener", name = "onEvent", descriptor = "(ILme/pesekjak/vitrum/TestInstance;)V")
+    void onEvent(Object listener, int value, Object instance);
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestListener", name = "describe", descriptor = "(J)Ljava/lang/String;")
+    Object describe(long id);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestBase", name = "compute", descriptor = "(I)I")
+    Integer compute(Object value);
+
+}
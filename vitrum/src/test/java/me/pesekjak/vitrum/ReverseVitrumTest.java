@@ -0,0 +1,60 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+
+public class ReverseVitrumTest {
+
+    @Test
+    public void testInterface() throws IllegalAccessException {
+        Callbacks callbacks = new Callbacks();
+        Object listener = Vitrum.createReverseWindow(ReverseTestInterface.class, "v1", callbacks);
+        assert listener instanceof TestListener;
+
+        TestInstance instance = new TestInstance();
+        ((TestListener) listener).onEvent(5, instance);
+        assert callbacks.listener == listener;
+        assert callbacks.value == 5;
+        assert callbacks.instance == instance;
+        assert ((TestListener) listener).describe(10).equals("id 10");
+    }
+
+    @Test
+    public void testSubclass() throws IllegalAccessException {
+        Object base = Vitrum.createReverseWindow(ReverseTestInterface.class, "v2", new Callbacks());
+        assert base instanceof TestBase;
+        assert ((TestBase) base).run(4) == 10;
+    }
+
+    @Test
+    public void testSharedClass() throws IllegalAccessException {
+        Object first = Vitrum.createReverseWindow(ReverseTestInterface.class, "v1", new Callbacks());
+        Object second = Vitrum.createReverseWindow(ReverseTestInterface.class, "v1", new Callbacks());
+        assert first.getClass() == second.getClass();
+    }
+
+    private static final class Callbacks implements ReverseTestInterface {
+
+        Object listener;
+        int value;
+        Object instance;
+
+        @Override
+        public void onEvent(Object listener, int value, Object instance) {
+            this.listener = listener;
+            this.value = value;
+            this.instance = instance;
+        }
+
+        @Override
+        public Object describe(long id) {
+            return "id " + id;
+        }
+
+        @Override
+        public Integer compute(Object value) {
+            return (Integer) value + 1;
+        }
+
+    }
+
+}
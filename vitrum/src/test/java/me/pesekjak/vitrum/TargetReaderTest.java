@@ -0,0 +1,49 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class TargetReaderTest {
+
+    private static final List<Class<?>> INTERFACES = List.of(
+            TestInterface.class,
+            MultiTestInterface.class,
+            ArrayTestInterface.class,
+            CachedTestInterface.class,
+            AffinityTestInterface.class,
+            NestmateTestInterface.class,
+            ForEachTestInterface.class
+    );
+
+    @Test
+    public void testSameAsAnnotations() {
+        for (Class<?> clazz : INTERFACES) {
+            for (String handler : List.of("v1", "v2", "v3", "reflective")) {
+                Map<String, TargetSpec> targets = TargetReader.getTargets(clazz, handler);
+                assert targets != null;
+                for (Method method : clazz.getDeclaredMethods()) {
+                    TargetSpec expected = null;
+                    for (Target target : method.getAnnotationsByType(Target.class)) {
+                        if (!target.handler().equals(handler)) continue;
+                        expected = TargetSpec.of(target);
+                        break;
+                    }
+                    assert Objects.equals(targets.get(TargetReader.key(method)), expected) : method;
+                }
+            }
+        }
+        assert TargetReader.getTargets(TestInterface.class, "v1") == TargetReader.getTargets(TestInterface.class, "v1");
+    }
+
+    @Test
+    public void testRuntimeInterface() throws IllegalAccessException {
+        Class<?> clazz = TestInterfaces.define("RuntimeTestInterface", 0, "m", Type.VOID_TYPE, List.of(), (method, handler, target) -> {});
+        assert TargetReader.getTargets(clazz, "v1") == null;
+    }
+
+}
@@ -0,0 +1,11 @@
+package me.pesekjak.vitrum;
+
+public abstract class TestBase {
+
+    protected abstract int compute(int value);
+
+    public int run(int value) {
+        return compute(value) * 2;
+    }
+
+}
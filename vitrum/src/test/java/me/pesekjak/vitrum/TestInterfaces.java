@@ -0,0 +1,82 @@
+package me.pesekjak.vitrum;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Defines synthetic window interfaces with generated annotated methods, used by tests
+ * and benchmarks that need more windows or methods than can be written by hand.
+ */
+final class TestInterfaces {
+
+    private TestInterfaces() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Defines window interface, each method has a {@link MultiTarget} with a target
+     * for each of the handlers.
+     * <p>
+     * Methods are named {@code prefix + index} and take the instance and the arguments.
+     *
+     * @param name simple name of the interface
+     * @param methods number of the methods
+     * @param prefix prefix of the method names
+     * @param returnType return type of the methods
+     * @param handlers handler identifiers
+     * @param targets writes source, name and descriptor of the targets
+     * @return interface class
+     * @throws IllegalAccessException if the class can not be defined
+     */
+    static Class<?> define(String name,
+                           int methods,
+                           String prefix,
+                           Type returnType,
+                           List<String> handlers,
+                           TargetWriter targets) throws IllegalAccessException {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(V16, ACC_PUBLIC | ACC_ABSTRACT | ACC_INTERFACE, "me/pesekjak/vitrum/" + name, null, "java/lang/Object", null);
+        String descriptor = Type.getMethodDescriptor(returnType, Type.getType(Object.class), Type.getType(Object[].class));
+        for (int m = 0; m < methods; m++) {
+            MethodVisitor visitor = writer.visitMethod(ACC_PUBLIC | ACC_ABSTRACT | ACC_VARARGS, prefix + m, descriptor, null, null);
+            AnnotationVisitor multi = visitor.visitAnnotation(Type.getDescriptor(MultiTarget.class), true);
+            AnnotationVisitor array = multi.visitArray("value");
+            for (int h = 0; h < handlers.size(); h++) {
+                AnnotationVisitor target = array.visitAnnotation(null, Type.getDescriptor(Target.class));
+                target.visit("handler", handlers.get(h));
+                targets.write(m, h, target);
+                target.visitEnd();
+            }
+            array.visitEnd();
+            multi.visitEnd();
+            visitor.visitEnd();
+        }
+        writer.visitEnd();
+        return MethodHandles.lookup().defineClass(writer.toByteArray());
+    }
+
+    /**
+     * Writes values of a generated {@link Target} annotation.
+     */
+    @FunctionalInterface
+    interface TargetWriter {
+
+        /**
+         * Writes values of the target, except for the handler.
+         *
+         * @param method index of the method
+         * @param handler index of the handler
+         * @param target visitor of the target annotation
+         */
+        void write(int method, int handler, AnnotationVisitor target);
+
+    }
+
+}
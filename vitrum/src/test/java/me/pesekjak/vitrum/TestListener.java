@@ -0,0 +1,9 @@
+package me.pesekjak.vitrum;
+
+public interface TestListener {
+
+    void onEvent(int value, TestInstance instance);
+
+    String describe(long id);
+
+}
@@ -0,0 +1,67 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TrackerVitrumTest {
+
+    private static final String SOURCE = "me/pesekjak/vitrum/TestInstance";
+
+    private static Tracker tracker() throws IllegalAccessException {
+        return Vitrum.tracker(List.of(
+                TargetSpec.getter(SOURCE, "number", "I"),
+                TargetSpec.getter(SOURCE, "foo", "Ljava/lang/String;"),
+                TargetSpec.getter(SOURCE, "changeMe", "D"),
+                new TargetSpec(SOURCE, "staticString", "Ljava/lang/String;", true, false, Target.Action.GET_FIELD)
+        ));
+    }
+
+    @Test
+    public void testTrack() throws IllegalAccessException {
+        Tracker tracker = tracker();
+        long[] values = tracker.newValues(1);
+        Object[] references = tracker.newReferences(1);
+        assert values.length == 2 && references.length == 2;
+
+        TestInstance instance = new TestInstance();
+        assert tracker.track(instance, values, references, 0) == 0b1011;
+        assert tracker.track(instance, values, references, 0) == 0;
+
+        instance.number = 5;
+        assert tracker.track(instance, values, references, 0) == 0b0001;
+        instance.changeMe = -0.0;
+        instance.foo = "foo";
+        assert tracker.track(instance, values, references, 0) == 0b0110;
+        instance.changeMe = Double.NaN;
+        assert tracker.track(instance, values, references, 0) == 0b0100;
+        assert tracker.track(instance, values, references, 0) == 0;
+    }
+
+    @Test
+    public void testTrackAll() throws IllegalAccessException {
+        Tracker tracker = tracker();
+        TestInstance[] instances = {new TestInstance(), new TestInstance(0, null), new TestInstance()};
+        long[] values = tracker.newValues(instances.length);
+        Object[] references = tracker.newReferences(instances.length);
+        long[] changes = new long[instances.length];
+
+        tracker.trackAll(instances, values, references, changes);
+        assert changes[0] == 0b1011 && changes[1] == 0b1000 && changes[2] == 0b1011;
+
+        instances[2].number = 11;
+        tracker.trackAll(instances, values, references, changes);
+        assert changes[0] == 0 && changes[1] == 0 && changes[2] == 0b0001;
+    }
+
+    @Test
+    public void testIllegalTracker() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.tracker(List.of()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.tracker(List.of(TargetSpec.setter(SOURCE, "number", "I"))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Vitrum.tracker(
+                Collections.nCopies(Tracker.MAX_FIELDS + 1, TargetSpec.getter(SOURCE, "number", "I"))));
+    }
+
+}
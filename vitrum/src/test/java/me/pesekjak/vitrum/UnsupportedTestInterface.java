@@ -0,0 +1,25 @@
+package me.pesekjak.vitrum;
+
+@Unsupported(Unsupported.Mode.THROW_STACKLESS)
+public interface UnsupportedTestInterface extends Window {
+
+    @Target(handler = "v1", source = "me/pesekjak/vitrum/TestInstance", name = "v1", descriptor = "()Ljava/lang/String;")
+    String v(Object instance, Object... arguments);
+
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestInstance", name = "foo", descriptor = "()V")
+    void foo(Object instance, Object... arguments);
+
+    @Unsupported(Unsupported.Mode.RETURN_DEFAULT)
+    @Target(handler = "v2", source = "me/pesekjak/vitrum/TestInstance", name = "number", descriptor = "I", action = Target.Action.GET_FIELD)
+    int number(Object instance, Object... arguments);
+
+    @Unsupported(value = Unsupported.Mode.RETURN_DEFAULT, defaultValue = "-1")
+    long missingNumber(Object instance, Object... arguments);
+
+    @Unsupported(value = Unsupported.Mode.RETURN_DEFAULT, defaultValue = "missing")
+    String missingString(Object instance, Object... arguments);
+
+    @Unsupported(Unsupported.Mode.THROW)
+    Object missingObject(Object instance, Object... arguments);
+
+}
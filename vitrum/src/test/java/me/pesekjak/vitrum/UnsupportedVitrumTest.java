@@ -0,0 +1,45 @@
+package me.pesekjak.vitrum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UnsupportedVitrumTest {
+
+    @Test
+    public void testSupports() throws IllegalAccessException {
+        UnsupportedTestInterface window = Vitrum.createWindow(UnsupportedTestInterface.class, "v1");
+        assert window.supports("v");
+        assert !window.supports("foo");
+        assert !window.supports("missingObject");
+        assert !window.supports("supports");
+
+        TestInterface other = Vitrum.createWindow(TestInterface.class, "v2");
+        assert other instanceof Window;
+        assert ((Window) other).supports("v");
+        assert !((Window) other).supports("plusOne");
+    }
+
+    @Test
+    public void testStackless() throws IllegalAccessException {
+        UnsupportedTestInterface window = Vitrum.createWindow(UnsupportedTestInterface.class, "v1");
+        RuntimeException first = Assertions.assertThrows(UnsupportedTargetException.class, () -> window.foo(new TestInstance()));
+        RuntimeException second = Assertions.assertThrows(UnsupportedTargetException.class, () -> window.foo(new TestInstance()));
+        assert first == second;
+        assert first.getStackTrace().length == 0;
+        first.addSuppressed(new IllegalStateException());
+        assert first.getSuppressed().length == 0;
+    }
+
+    @Test
+    public void testDefaultValue() throws IllegalAccessException {
+        UnsupportedTestInterface window = Vitrum.createWindow(UnsupportedTestInterface.class, "v1");
+        assert window.number(new TestInstance()) == 0;
+        assert window.missingNumber(null) == -1;
+        assert window.missingString(null).equals("missing");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> window.missingObject(null));
+
+        UnsupportedTestInterface supported = Vitrum.createWindow(UnsupportedTestInterface.class, "v2");
+        assert supported.number(new TestInstance()) == 10;
+    }
+
+}